@@ -0,0 +1,235 @@
+package csvhelper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * Measures the load, access and export paths of CSVData on synthetic files of
+ * several sizes and in every layout. Run it with the gc profiler to see how many
+ * bytes each operation allocates: gradle jmh, which passes -prof gc.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CSVDataBenchmark {
+	private static final String[] COLUMN_NAMES = {"time(ms)", "gyro x", "gyro y", "gyro z",
+			"accel x", "accel y", "accel z"};
+	private static final int[] ROW_INDEXES = {0, 1, 2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233, 377, 610, 987};
+
+	@Param({"10000", "100000"})
+	public int numRows;
+
+	@Param({"ROWS", "COLUMNS", "OFF_HEAP", "FLOATS"})
+	public CSVStorage.Layout layout;
+
+	private Path directory;
+	private String generic;
+	private String powerSense;
+	private CSVOptions options;
+	private CSVTransform corrected;
+	private CSVData data;
+
+	@Setup(Level.Trial)
+	public void writeFiles() throws IOException {
+		directory = Files.createTempDirectory("csvdata-benchmark");
+		generic = writeGenericFile(directory.resolve("generic.csv"), numRows);
+		powerSense = writePowerSenseFile(directory.resolve("powersense.csv"), numRows);
+
+		options = new CSVOptions().setLayout(layout);
+		corrected = new CSVTransform().reorder("time(ms)", "gyro x", "gyro y", "gyro z")
+				.elapsedTime("time(ms)").filter("accel z", value -> value > 0);
+		data = new CSVData(powerSense, options);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFiles() throws IOException {
+		data.close();
+
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public CSVData loadGeneric() {
+		return new CSVData(generic, 1, COLUMN_NAMES, options);
+	}
+
+	@Benchmark
+	public CSVData loadHeaderRow() {
+		return new CSVData(generic, 0, options);
+	}
+
+	@Benchmark
+	public CSVData loadPowerSense() {
+		return new CSVData(powerSense, options);
+	}
+
+	@Benchmark
+	public CSVData loadPowerSenseTransformed() {
+		return new CSVData(powerSense, new CSVOptions().setLayout(layout).setTransform(corrected));
+	}
+
+	@Benchmark
+	public double scanGeneric() throws IOException {
+		double[] sum = new double[1];
+		CSVData.scan(generic, 0, (rowIndex, row) -> sum[0] += row[3]);
+		return sum[0];
+	}
+
+	@Benchmark
+	public double[] getColumn() {
+		return data.getColumn(3);
+	}
+
+	@Benchmark
+	public double[][] getColumns() {
+		return data.getColumns(new int[] {1, 2, 3});
+	}
+
+	@Benchmark
+	public double[][] getRows() {
+		return data.getRows(ROW_INDEXES);
+	}
+
+	@Benchmark
+	public double viewRows() {
+		return data.viewRows(ROW_INDEXES).getValue(7, 3);
+	}
+
+	@Benchmark
+	public CSVData swapColumns() {
+		data.swapColumns(1, 4);
+		return data;
+	}
+
+	@Benchmark
+	public ColumnStats getColumnStats() {
+		// changing a value makes the statistics be computed again
+		data.setValue(0, 3, 0);
+		return data.getColumnStats(3);
+	}
+
+	@Benchmark
+	public CSVView rowsBetween() {
+		return data.rowsBetween(1000 + numRows * 4, 1000 + numRows * 6);
+	}
+
+	@Benchmark
+	public int nearestRow() {
+		return data.nearestRow(1000 + numRows * 5 + 3);
+	}
+
+	@Benchmark
+	public CSVData resample() {
+		return data.resample(100, CSVResampler.Aggregation.MEAN);
+	}
+
+	@Benchmark
+	public CSVData downsample() {
+		return data.downsample(1000, 3);
+	}
+
+	@Benchmark
+	public int[] getSortOrder() {
+		return data.getSortOrder(new int[] {3}, new boolean[] {true});
+	}
+
+	@Benchmark
+	public CSVData joinNearest() {
+		return data.joinNearest(data, 5);
+	}
+
+	@Benchmark
+	public int getColumnIndex() {
+		return data.getColumnIndex("gyro z");
+	}
+
+	@Benchmark
+	public String dataToString() {
+		return data.dataToString();
+	}
+
+	/***
+	 * Writes a file with a header line and seven numeric columns
+	 *
+	 * @param path where to write the file
+	 * @param numRows the number of rows
+	 * @return the path of the file
+	 * @throws IOException if the file can not be written
+	 */
+	private static String writeGenericFile(Path path, int numRows) throws IOException {
+		Random random = new Random(numRows);
+
+		try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+			writer.write(String.join(",", COLUMN_NAMES));
+			for (int i = 0; i < numRows; i++) {
+				writer.write("\n" + (1000 + i * 10));
+				for (int j = 1; j < COLUMN_NAMES.length; j++)
+					writer.write("," + randomReading(random));
+			}
+		}
+
+		return path.toString();
+	}
+
+	/***
+	 * Writes a file in the PowerSense format: a header line and 13 fields per line,
+	 * the last one ending in '#'
+	 *
+	 * @param path where to write the file
+	 * @param numRows the number of rows
+	 * @return the path of the file
+	 * @throws IOException if the file can not be written
+	 */
+	private static String writePowerSenseFile(Path path, int numRows) throws IOException {
+		Random random = new Random(numRows);
+
+		try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+			writer.write("PowerSense capture");
+			for (int i = 0; i < numRows; i++) {
+				writer.write("\n" + (1000 + i * 10));
+				for (int j = 1; j < 13; j++)
+					writer.write("," + randomReading(random));
+				writer.write("#");
+			}
+		}
+
+		return path.toString();
+	}
+
+	/***
+	 * Returns a sensor reading with up to six decimals
+	 *
+	 * @param random the source of randomness
+	 * @return the reading as text
+	 */
+	private static String randomReading(Random random) {
+		return String.format(Locale.ROOT, "%." + random.nextInt(7) + "f", (random.nextDouble() - 0.5) * 100);
+	}
+}
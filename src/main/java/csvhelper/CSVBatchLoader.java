@@ -0,0 +1,332 @@
+package csvhelper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/***
+ * Loads many files at once. Each file is opened and read ahead on virtual threads 
+ * when the JVM has them, or on one platform thread per file in flight when it does 
+ * not, so waiting on the disk never holds up a parsing thread. The file is then 
+ * parsed on a separate pool with one thread per processor, through the same reader 
+ * a single file goes through, so it is streamed, memory mapped or parsed in parallel 
+ * as the options ask. Only a limited number of files are in flight at a time, so 
+ * memory stays bounded however many files there are.
+ *
+ */
+public class CSVBatchLoader {
+	// how much of the start of each file is read ahead, and in what size of reads
+	private static final long READ_AHEAD_SIZE = 1 << 26;
+	private static final int READ_BUFFER_SIZE = 1 << 16;
+
+	private final CSVOptions options;
+	private final int numLinesToIgnore;
+	private int maxFilesInFlight = 16;
+	private int numParseThreads = Runtime.getRuntime().availableProcessors();
+
+	/***
+	 * Receives the result of every file as soon as it has been loaded. The
+	 * methods are called one at a time on the thread that started the load.
+	 */
+	public interface Listener {
+		/***
+		 * Called when a file has been loaded
+		 *
+		 * @param filepath the path to the file
+		 * @param data the values in the file
+		 */
+		void loaded(String filepath, CSVData data);
+
+		/***
+		 * Called when a file could not be loaded
+		 *
+		 * @param filepath the path to the file
+		 * @param error why the file could not be loaded, which may be an error such as OutOfMemoryError
+		 */
+		void failed(String filepath, Throwable error);
+	}
+
+	/***
+	 * The outcome of loading one file
+	 */
+	private static class Result {
+		int index;
+		String filepath;
+		CSVData data;
+		Throwable error;
+	}
+
+	/***
+	 * Creates a loader for PowerSense files, the same ones newCSVCorrectedPowerSenseData reads
+	 *
+	 * @param options how the values are stored
+	 */
+	public CSVBatchLoader(CSVOptions options) {
+		this(-1, options);
+	}
+
+	/***
+	 * Creates a loader for files where the column names are on the line after the ignored lines
+	 *
+	 * @param numLinesToIgnore the line where the column names is, where the next line has the data
+	 * @param options how the values are stored
+	 */
+	public CSVBatchLoader(int numLinesToIgnore, CSVOptions options) {
+		this.numLinesToIgnore = numLinesToIgnore;
+		this.options = options;
+	}
+
+	/***
+	 * Sets how many files are read, parsed or waiting to be handed over at the same time. Defaults to 16.
+	 *
+	 * @param maxFilesInFlight the most files in flight
+	 * @return this loader
+	 */
+	public CSVBatchLoader setMaxFilesInFlight(int maxFilesInFlight) {
+		if (maxFilesInFlight < 1) throw new IllegalArgumentException("At least one file must be in flight");
+
+		this.maxFilesInFlight = maxFilesInFlight;
+		return this;
+	}
+
+	/***
+	 * Sets how many threads parse the files. Defaults to the number of processors.
+	 *
+	 * @param numParseThreads the number of parsing threads
+	 * @return this loader
+	 */
+	public CSVBatchLoader setParseThreads(int numParseThreads) {
+		if (numParseThreads < 1) throw new IllegalArgumentException("At least one parsing thread is needed");
+
+		this.numParseThreads = numParseThreads;
+		return this;
+	}
+
+	/***
+	 * Loads every .csv and .csv.gz file in a directory, in name order
+	 *
+	 * @param directory the directory holding the files
+	 * @param listener the listener that receives each file as it finishes
+	 * @throws IOException if the directory can not be listed
+	 */
+	public void loadDirectory(String directory, Listener listener) throws IOException {
+		load(listDirectory(directory), listener);
+	}
+
+	/***
+	 * Loads files, handing each one to the listener as soon as it finishes. This
+	 * returns once every file has been handed over. A file that can not be loaded
+	 * is reported to the listener and the others keep loading.
+	 *
+	 * @param filepaths the paths to the files
+	 * @param listener the listener that receives each file as it finishes
+	 * @throws InterruptedIOException if the thread is interrupted while waiting for a file
+	 */
+	public void load(List<String> filepaths, Listener listener) throws InterruptedIOException {
+		load(filepaths, result -> {
+			if (result.error == null) listener.loaded(result.filepath, result.data);
+			else listener.failed(result.filepath, result.error);
+		});
+	}
+
+	/***
+	 * Loads files, handing the outcome of each one over as soon as it finishes
+	 *
+	 * @param filepaths the paths to the files
+	 * @param handler receives the outcome of each file on the current thread
+	 * @throws InterruptedIOException if the thread is interrupted while waiting for a file
+	 */
+	private void load(List<String> filepaths, Consumer<Result> handler) throws InterruptedIOException {
+		ExecutorService readers = newReadExecutor(Math.min(maxFilesInFlight, Math.max(1, filepaths.size())));
+		ExecutorService parsers = Executors.newFixedThreadPool(numParseThreads);
+		ExecutorCompletionService<Result> finished = new ExecutorCompletionService<>(readers);
+
+		int numStarted = 0, numFinished = 0;
+		try {
+			for (String filepath : filepaths) {
+				// a file only leaves flight once it has been handed over
+				while (numStarted - numFinished >= maxFilesInFlight) {
+					handler.accept(getResult(finished.take()));
+					numFinished++;
+				}
+
+				int index = numStarted++;
+				finished.submit(() -> loadFile(index, filepath, parsers));
+			}
+
+			while (numFinished < numStarted) {
+				handler.accept(getResult(finished.take()));
+				numFinished++;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted after " + numFinished + " of " + filepaths.size() + " files");
+		} finally {
+			readers.shutdownNow();
+			parsers.shutdownNow();
+		}
+	}
+
+	/***
+	 * Loads files and returns them in the order given. If any file can not be
+	 * loaded, the files that were loaded are closed and the first error is thrown
+	 * with the others added to it.
+	 *
+	 * @param filepaths the paths to the files
+	 * @return the values in each file
+	 * @throws IOException if a file can not be loaded
+	 */
+	public List<CSVData> loadAll(List<String> filepaths) throws IOException {
+		CSVData[] loaded = new CSVData[filepaths.size()];
+		List<Throwable> errors = new ArrayList<>();
+
+		load(filepaths, result -> {
+			if (result.error == null) loaded[result.index] = result.data;
+			else errors.add(result.error);
+		});
+
+		if (errors.isEmpty()) return List.of(loaded);
+
+		for (CSVData data : loaded)
+			if (data != null) data.close();
+
+		IOException error = errors.get(0) instanceof IOException ? (IOException) errors.get(0)
+				: new IOException(errors.get(0));
+		for (int i = 1; i < errors.size(); i++)
+			error.addSuppressed(errors.get(i));
+		throw error;
+	}
+
+	/***
+	 * Reads a file ahead on the current thread and parses it on the parsing pool. 
+	 * Anything thrown is kept in the outcome, so one file that fails, even with an 
+	 * error, does not stop the others.
+	 *
+	 * @param index the position of the file in the list
+	 * @param filepath the path to the file
+	 * @param parsers the parsing pool
+	 * @return the outcome
+	 */
+	private Result loadFile(int index, String filepath, ExecutorService parsers) {
+		Result result = new Result();
+		result.index = index;
+		result.filepath = filepath;
+
+		try {
+			readAhead(filepath);
+			Future<CSVData> parsed = parsers.submit(() -> parse(filepath));
+
+			result.data = parsed.get();
+		} catch (ExecutionException e) {
+			result.error = e.getCause();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.error = e;
+		} catch (Throwable e) {
+			result.error = e;
+		}
+
+		return result;
+	}
+
+	/***
+	 * Reads the start of a file and throws the bytes away, so the parser finds 
+	 * them in the cache of the operating system instead of waiting on the disk. 
+	 * Only one small buffer is held, however large the file is.
+	 *
+	 * @param filepath the path to the file
+	 * @throws IOException if the file can not be opened or read
+	 */
+	private static void readAhead(String filepath) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+		try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+			for (long numRead = 0; numRead < READ_AHEAD_SIZE; ) {
+				buffer.clear();
+				int count = channel.read(buffer);
+				if (count < 0) break;
+				numRead += count;
+			}
+		}
+	}
+
+	/***
+	 * Loads a file through the file reader on the current thread
+	 *
+	 * @param filepath the path to the file
+	 * @return the values in the file
+	 * @throws IOException if the file can not be read
+	 */
+	private CSVData parse(String filepath) throws IOException {
+		if (numLinesToIgnore < 0) return CSVData.loadPowerSense(filepath, options);
+		return CSVData.loadCSVData(filepath, numLinesToIgnore, options);
+	}
+
+	/***
+	 * Returns the outcome of a file that has finished loading
+	 *
+	 * @param finished the finished load
+	 * @return the outcome
+	 * @throws InterruptedException if the thread is interrupted
+	 */
+	private static Result getResult(Future<Result> finished) throws InterruptedException {
+		try {
+			return finished.get();
+		} catch (ExecutionException e) {
+			// loadFile catches everything
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/***
+	 * Returns the .csv and .csv.gz files in a directory in name order
+	 *
+	 * @param directory the directory holding the files
+	 * @return the paths to the files
+	 * @throws IOException if the directory can not be listed
+	 */
+	private static List<String> listDirectory(String directory) throws IOException {
+		List<String> filepaths = new ArrayList<>();
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(directory), "*.{csv,CSV,csv.gz,CSV.gz}")) {
+			for (Path file : files)
+				if (Files.isRegularFile(file)) filepaths.add(file.toString());
+		}
+
+		Collections.sort(filepaths);
+		return filepaths;
+	}
+
+	/***
+	 * Creates the executor that reads the files. Virtual threads are used when
+	 * the JVM has them, found by reflection so the code still runs on older JVMs.
+	 *
+	 * @param numThreads the number of platform threads to use otherwise
+	 * @return the executor
+	 */
+	private static ExecutorService newReadExecutor(int numThreads) {
+		try {
+			Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// virtual threads are missing, or are still a preview feature that is not enabled
+			return Executors.newFixedThreadPool(numThreads);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package csvhelper;
+
+/***
+ * A column of a CSVData object that has already been looked up by name. 
+ * Keeping the handle skips the name lookup in loops, and it keeps pointing 
+ * at the same column after swapColumns moves it.
+ *
+ */
+public class CSVColumn {
+	private String name;
+	private int index;
+
+	/***
+	 * Creates a handle for a column
+	 * 
+	 * @param name the name of the column
+	 * @param index the index of the column
+	 */
+	CSVColumn(String name, int index) {
+		this.name = name;
+		this.index = index;
+	}
+
+	/***
+	 * Returns the name of the column
+	 * 
+	 * @return the name of the column
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/***
+	 * Returns the current index of the column
+	 * 
+	 * @return the index of the column
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/***
+	 * Renames the column
+	 * 
+	 * @param name the new name
+	 */
+	void setName(String name) {
+		this.name = name;
+	}
+
+	/***
+	 * Moves the column
+	 * 
+	 * @param index the new index
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
+}
@@ -0,0 +1,1544 @@
+package csvhelper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/***
+ * A class to read/write numerical CSV files and allow easy access. 
+ * It is not thread safe; use ConcurrentCSVData to share data between threads.
+ * 
+ * @author Naman
+ *
+ */
+public class CSVData implements AutoCloseable {
+	private String filePathToCSV;
+	private CSVStorage storage;
+	private String[] columnNames;
+	private CSVColumn[] columnHandles;
+	private Map<String, CSVColumn> columnsByName;
+	private CSVReader tailReader;
+	private ColumnStats[] columnStats;
+	private CSVListener listener;
+	private int timeColumn;
+	private int numTimeRowsSorted;
+	
+	// the columns of a corrected PowerSense file and the field of a line each one comes from
+	private static final String[] POWER_SENSE_COLUMNS = {"time(ms)", "accel x", "accel y", "accel z", 
+			"gyro x", "gyro y", "gyro z"};
+	private static final int[] POWER_SENSE_FIELDS = {0, 10, 11, 12, 4, 5, 6};
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * All other data is stored as doubles.
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param colunmNames the names of the columns
+	 * @return a CVSData object for that file
+	 */
+	public CSVData(String filepath, int numLinesToIgnore, String[] columnNames) {
+		this(filepath, numLinesToIgnore, columnNames, new CSVOptions());
+	}
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * All other data is stored as doubles.
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param colunmNames the names of the columns
+	 * @param options how the file is loaded and stored
+	 * @return a CVSData object for that file
+	 */
+	public CSVData(String filepath, int numLinesToIgnore, String[] columnNames, CSVOptions options) {
+		this.filePathToCSV = filepath;
+
+		// create storage for data
+		CSVReader reader = new CSVReader(numLinesToIgnore, columnNames, null, options);
+		readFile(filepath, reader, options);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * All other data is stored as doubles. The first line in the CSV file 
+	 * must contain the names of the columns
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore the line where the column names is, where the next line has the data
+	 * @return a CVSData object for that file
+	 */
+	public CSVData(String filepath, int numLinesToIgnore) {
+		this(filepath, numLinesToIgnore, new CSVOptions());
+	}
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * All other data is stored as doubles. The first line in the CSV file 
+	 * must contain the names of the columns
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore the line where the column names is, where the next line has the data
+	 * @param options how the file is loaded and stored
+	 * @return a CVSData object for that file
+	 */
+	public CSVData(String filepath, int numLinesToIgnore, CSVOptions options) {
+		this.filePathToCSV = filepath;
+
+		// the column names are read from the line after the ignored lines
+		CSVReader reader = new CSVReader(numLinesToIgnore, null, null, options);
+		readFile(filepath, reader, options);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * It uses the first row as the column names. All other data is stored 
+	 * as doubles.
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @return a CVSData object for that file
+	 */
+	public static CSVData readCSVData(String filepath, int numLinesToIgnore) {
+		return new CSVData(filepath, numLinesToIgnore);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * It uses the first row as the column names. All other data is stored 
+	 * as doubles.
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @return a CVSData object for that file
+	 */
+	public static CSVData readCSVData(String filepath, int numLinesToIgnore, String[] columnNames) {
+		return new CSVData(filepath, numLinesToIgnore, columnNames);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * It uses the first row as the column names. All other data is stored 
+	 * as doubles.
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param options how the file is loaded and stored
+	 * @return a CVSData object for that file
+	 */
+	public static CSVData readCSVData(String filepath, int numLinesToIgnore, CSVOptions options) {
+		return new CSVData(filepath, numLinesToIgnore, options);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a file ignoring lines at the top. 
+	 * All other data is stored as doubles.
+	 * 
+	 * @param filename the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param colunmNames the names of the columns
+	 * @param options how the file is loaded and stored
+	 * @return a CVSData object for that file
+	 */
+	public static CSVData readCSVData(String filepath, int numLinesToIgnore, String[] columnNames, CSVOptions options) {
+		return new CSVData(filepath, numLinesToIgnore, columnNames, options);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a stream ignoring lines at the top. It uses 
+	 * the first row as the column names. Gzip and zlib data is decompressed as it 
+	 * is read, so it is never expanded in full. The stream is not closed.
+	 * 
+	 * @param in the stream to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param options how the values are stored
+	 * @return a CVSData object for that stream
+	 * @throws IOException if the stream can not be read
+	 */
+	public static CSVData readCSVData(InputStream in, int numLinesToIgnore, CSVOptions options) throws IOException {
+		return readStream(null, in, new CSVReader(numLinesToIgnore, null, null, options), options);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a stream ignoring lines at the top. Gzip and 
+	 * zlib data is decompressed as it is read. The stream is not closed.
+	 * 
+	 * @param in the stream to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param columnNames the names of the columns
+	 * @param options how the values are stored
+	 * @return a CVSData object for that stream
+	 * @throws IOException if the stream can not be read
+	 */
+	public static CSVData readCSVData(InputStream in, int numLinesToIgnore, String[] columnNames, 
+			CSVOptions options) throws IOException {
+		return readStream(null, in, new CSVReader(numLinesToIgnore, columnNames, null, options), options);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a channel ignoring lines at the top. It uses 
+	 * the first row as the column names. Gzip and zlib data is decompressed as it 
+	 * is read. The channel is not closed.
+	 * 
+	 * @param channel the channel to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param options how the values are stored
+	 * @return a CVSData object for that channel
+	 * @throws IOException if the channel can not be read
+	 */
+	public static CSVData readCSVData(ReadableByteChannel channel, int numLinesToIgnore, CSVOptions options) 
+			throws IOException {
+		return readCSVData(Channels.newInputStream(channel), numLinesToIgnore, options);
+	}
+	
+	/***
+	 * Returns a new CVSData object for a channel ignoring lines at the top. Gzip and 
+	 * zlib data is decompressed as it is read. The channel is not closed.
+	 * 
+	 * @param channel the channel to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param columnNames the names of the columns
+	 * @param options how the values are stored
+	 * @return a CVSData object for that channel
+	 * @throws IOException if the channel can not be read
+	 */
+	public static CSVData readCSVData(ReadableByteChannel channel, int numLinesToIgnore, String[] columnNames, 
+			CSVOptions options) throws IOException {
+		return readCSVData(Channels.newInputStream(channel), numLinesToIgnore, columnNames, options);
+	}
+	
+	/***
+	 * Returns a new CSVData object for a PowerSense file, throwing instead of 
+	 * reporting when the file can not be read
+	 * 
+	 * @param filepath the file to read
+	 * @param options how the file is loaded and stored
+	 * @return a CSVData object for that file
+	 * @throws IOException if the file can not be read
+	 */
+	static CSVData loadPowerSense(String filepath, CSVOptions options) throws IOException {
+		CSVReader reader = new CSVReader(1, POWER_SENSE_COLUMNS, POWER_SENSE_FIELDS, options);
+		reader.readFile(filepath);
+		return wrap(filepath, reader, options);
+	}
+	
+	/***
+	 * Returns a new CSVData object for a file, throwing instead of reporting when 
+	 * the file can not be read. The column names are read from the line after the 
+	 * ignored lines.
+	 * 
+	 * @param filepath the file to read
+	 * @param numLinesToIgnore the line where the column names is, where the next line has the data
+	 * @param options how the file is loaded and stored
+	 * @return a CSVData object for that file
+	 * @throws IOException if the file can not be read
+	 */
+	static CSVData loadCSVData(String filepath, int numLinesToIgnore, CSVOptions options) throws IOException {
+		CSVReader reader = new CSVReader(numLinesToIgnore, null, null, options);
+		reader.readFile(filepath);
+		return wrap(filepath, reader, options);
+	}
+	
+	/***
+	 * Streams the rows through the reader and wraps what it parsed
+	 * 
+	 * @param filepath the file the stream reads, or null
+	 * @param in the stream to read
+	 * @param reader the reader that parses the rows
+	 * @param options how the values are stored
+	 * @return a CSVData object for the rows
+	 * @throws IOException if the stream can not be read
+	 */
+	private static CSVData readStream(String filepath, InputStream in, CSVReader reader, CSVOptions options) 
+			throws IOException {
+		reader.read(in);
+		return wrap(filepath, reader, options);
+	}
+	
+	/***
+	 * Wraps the columns and rows a reader parsed
+	 * 
+	 * @param filepath the file the rows came from, or null
+	 * @param reader the reader that parsed the rows
+	 * @param options how the values are stored
+	 * @return a CSVData object for the rows
+	 */
+	private static CSVData wrap(String filepath, CSVReader reader, CSVOptions options) {
+		String[] columnNames = reader.getColumnNames() == null ? new String[0] : reader.getColumnNames();
+		CSVStorage storage = reader.getStorage() == null 
+				? CSVStorage.create(options.getLayout(), columnNames.length, reader.getTimeColumn()) : reader.getStorage();
+		CSVData data = new CSVData(filepath, columnNames, storage);
+		data.timeColumn = reader.getTimeColumn();
+		data.listener = options.getListener();
+		return data;
+	}
+	
+	/***
+	 * Creates a CSVData object specifically for data from powerSense
+	 * 
+	 * @param filepath
+	 */
+	public CSVData(String filepath) {
+		this(filepath, new CSVOptions());
+	}
+	
+	/***
+	 * Creates a CSVData object specifically for data from powerSense
+	 * 
+	 * @param filepath the file path
+	 * @param options how the file is loaded and stored
+	 */
+	public CSVData(String filepath, CSVOptions options) {
+		this.filePathToCSV = filepath;
+
+		// the columns come in the order of acceleration then gyro, so only those fields are parsed
+		CSVReader reader = new CSVReader(1, POWER_SENSE_COLUMNS, POWER_SENSE_FIELDS, options);
+		readFile(filepath, reader, options);
+	}
+	
+	/***
+	 * Creates a CSVData object around values that are already stored
+	 * 
+	 * @param filepath the file the values came from
+	 * @param columnNames the names of the columns
+	 * @param storage the storage holding the values
+	 */
+	private CSVData(String filepath, String[] columnNames, CSVStorage storage) {
+		this.filePathToCSV = filepath;
+		this.columnNames = columnNames;
+		this.storage = storage;
+	}
+	
+	/***
+	 * Corrects the PowerSense Data into the specific data and format we want
+	 * 
+	 * @param filepath the file path
+	 * @return the corrected CSVData object
+	 */
+	public static CSVData newCSVCorrectedPowerSenseData(String filepath) {
+		return new CSVData(filepath);
+	}
+	
+	/***
+	 * Corrects the PowerSense Data into the specific data and format we want
+	 * 
+	 * @param filepath the file path
+	 * @param options how the file is loaded and stored
+	 * @return the corrected CSVData object
+	 */
+	public static CSVData newCSVCorrectedPowerSenseData(String filepath, CSVOptions options) {
+		return new CSVData(filepath, options);
+	}
+	
+	/***
+	 * Swaps two columns with the indexes specified. It makes sure to keep the titles in corresponding 
+	 * order with the data.
+	 * 
+	 * @param index1 the index for the 1st column to be swapped
+	 * @param index2 the index for the 2nd column to be swapped
+	 */
+	public void swapColumns(int index1, int index2) {
+		String temp = this.columnNames[index1];
+		this.columnNames[index1] = this.columnNames[index2];
+		this.columnNames[index2] = temp;
+		
+		storage.swapColumns(index1, index2);
+		
+		if (columnHandles != null) {
+			CSVColumn handle = columnHandles[index1];
+			columnHandles[index1] = columnHandles[index2];
+			columnHandles[index2] = handle;
+			columnHandles[index1].setIndex(index1);
+			columnHandles[index2].setIndex(index2);
+			indexFirstColumnNamed(columnNames[index1]);
+			indexFirstColumnNamed(columnNames[index2]);
+		}
+		
+		if (columnStats != null) {
+			ColumnStats stats = columnStats[index1];
+			columnStats[index1] = columnStats[index2];
+			columnStats[index2] = stats;
+		}
+		
+		// the time column follows its values
+		if (timeColumn == index1) timeColumn = index2;
+		else if (timeColumn == index2) timeColumn = index1;
+	}
+	
+	/***
+	 * Renames a column, keeping the name lookup up to date
+	 * 
+	 * @param columnIndex the index of the column
+	 * @param name the new name
+	 */
+	private void renameColumn(int columnIndex, String name) {
+		String oldName = columnNames[columnIndex];
+		columnNames[columnIndex] = name;
+		
+		if (columnHandles != null) {
+			columnHandles[columnIndex].setName(name);
+			indexFirstColumnNamed(oldName);
+			indexFirstColumnNamed(name);
+		}
+	}
+	
+	/***
+	 * Points the hash lookup for a name at the first column with that name, like 
+	 * the old linear search, or removes the name if no column has it any more
+	 * 
+	 * @param name the name of the column
+	 */
+	private void indexFirstColumnNamed(String name) {
+		for (int i = 0; i < columnNames.length; i++) {
+			if (name.equals(columnNames[i])) {
+				columnsByName.put(name, columnHandles[i]);
+				return;
+			}
+		}
+		
+		columnsByName.remove(name);
+	}
+	
+	/***
+	 * Returns an array containing the column names
+	 * 
+	 * @param titleLine the string containing the title names separated by columns
+	 * @return the array containing the column names
+	 */
+	public String[] getColumnNames(String titleLine) {
+		return titleLine.split(",");
+	}
+	
+	/***
+	 * Streams the file through the reader and stores the columns and rows it parsed
+	 * 
+	 * @param filepath the path to the file
+	 * @param reader the reader that parses the rows
+	 * @param options how the file is loaded and stored
+	 */
+	private void readFile(String filepath, CSVReader reader, CSVOptions options) {
+		this.listener = options.getListener();
+		try {
+			reader.readFile(filepath);
+		} catch (IOException e) {
+			reportError(filepath, e);
+		}
+		
+		this.columnNames = reader.getColumnNames() == null ? new String[0] : reader.getColumnNames();
+		this.storage = reader.getStorage() == null 
+				? CSVStorage.create(options.getLayout(), columnNames.length, reader.getTimeColumn()) : reader.getStorage();
+		this.timeColumn = reader.getTimeColumn();
+		
+		if (options.isTail()) this.tailReader = reader;
+	}
+	
+	/***
+	 * Reads a file one row at a time without storing it. The column names are read 
+	 * from the line after the ignored lines, and each row is handed to the visitor 
+	 * in a reused array, so memory stays the same however large the file is.
+	 * 
+	 * @param filepath the file to read
+	 * @param numLinesToIgnore the line where the column names is, where the next line has the data
+	 * @param visitor the visitor that receives the rows
+	 * @return the number of rows visited
+	 * @throws IOException if the file can not be read
+	 */
+	public static int scan(String filepath, int numLinesToIgnore, RowVisitor visitor) throws IOException {
+		return scan(filepath, numLinesToIgnore, new CSVOptions(), visitor);
+	}
+	
+	/***
+	 * Reads a file one row at a time without storing it. The column names are read 
+	 * from the line after the ignored lines.
+	 * 
+	 * @param filepath the file to read
+	 * @param numLinesToIgnore the line where the column names is, where the next line has the data
+	 * @param options which columns are read and whether the file is memory mapped
+	 * @param visitor the visitor that receives the rows
+	 * @return the number of rows visited
+	 * @throws IOException if the file can not be read
+	 */
+	public static int scan(String filepath, int numLinesToIgnore, CSVOptions options, RowVisitor visitor) 
+			throws IOException {
+		return new CSVReader(numLinesToIgnore, null, null, options).scan(filepath, visitor);
+	}
+	
+	/***
+	 * Reads a file one row at a time without storing it, ignoring lines at the top.
+	 * 
+	 * @param filepath the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param columnNames the names of the columns
+	 * @param visitor the visitor that receives the rows
+	 * @return the number of rows visited
+	 * @throws IOException if the file can not be read
+	 */
+	public static int scan(String filepath, int numLinesToIgnore, String[] columnNames, RowVisitor visitor) 
+			throws IOException {
+		return scan(filepath, numLinesToIgnore, columnNames, new CSVOptions(), visitor);
+	}
+	
+	/***
+	 * Reads a file one row at a time without storing it, ignoring lines at the top.
+	 * 
+	 * @param filepath the file to read
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param columnNames the names of the columns
+	 * @param options which columns are read and whether the file is memory mapped
+	 * @param visitor the visitor that receives the rows
+	 * @return the number of rows visited
+	 * @throws IOException if the file can not be read
+	 */
+	public static int scan(String filepath, int numLinesToIgnore, String[] columnNames, CSVOptions options, 
+			RowVisitor visitor) throws IOException {
+		return new CSVReader(numLinesToIgnore, columnNames, null, options).scan(filepath, visitor);
+	}
+	
+	/***
+	 * Reads the rows that were added to the end of the file since it was loaded or 
+	 * last refreshed. Only the new bytes are parsed, and the storage grows geometrically. 
+	 * The file must have been loaded with CSVOptions.setTail(true).
+	 * 
+	 * @return the number of rows that were added
+	 */
+	public int readNewRows() {
+		if (tailReader == null) throw new IllegalStateException("The file was not loaded with CSVOptions.setTail(true)");
+		
+		int numRowsBefore = storage.getNumRows();
+		int numNewRows = 0;
+		try {
+			numNewRows = tailReader.readAppended(filePathToCSV);
+		} catch (IOException e) {
+			reportError(filePathToCSV, e);
+		} finally {
+			// the header line may only have been written since the last read
+			if (tailReader.getStorage() != null && tailReader.getStorage() != storage) {
+				this.columnNames = tailReader.getColumnNames();
+				this.storage = tailReader.getStorage();
+				this.columnStats = null;
+			}
+			// rows may have been added before a malformed line stopped the read
+			if (storage.getNumRows() != numRowsBefore) this.columnStats = null;
+		}
+		
+		return numNewRows;
+	}
+
+	/***
+	 * Returns all the values in a row
+	 * 
+	 * @param rowIndex the index of the row
+	 * @return all the values in a row
+	 */
+	public double[] getRow(int rowIndex) {
+		return storage.getRow(rowIndex);
+	}
+	
+	/***
+	 * Returns all the values in a column
+	 * 
+	 * @param columnIndex the index of the column
+	 * @return all the values in a column
+	 */
+	public double[] getColumn(int columnIndex) {
+		return storage.getColumn(columnIndex);
+	}
+	
+	/***
+	 * Returns all the values in a column
+	 * 
+	 * @param name the name of the column
+	 * @return all the values in a column
+	 */
+	public double[] getColumn(String name) {
+		int index = getColumnIndex(name);
+		
+		return getColumn(index);
+	}
+	
+	/***
+	 * Returns all the values in a column
+	 * 
+	 * @param column the handle of the column
+	 * @return all the values in a column
+	 */
+	public double[] getColumn(CSVColumn column) {
+		return getColumn(column.getIndex());
+	}
+	
+	/***
+	 * Returns a read-only buffer over the values in a column. With the COLUMNS 
+	 * layout the buffer reads the stored column directly, without copying it.
+	 * 
+	 * @param columnIndex the index of the column
+	 * @return a read-only buffer over the values in a column
+	 */
+	public DoubleBuffer getColumnView(int columnIndex) {
+		return storage.getColumnView(columnIndex);
+	}
+	
+	/***
+	 * Returns a read-only buffer over the values in a column. With the COLUMNS 
+	 * layout the buffer reads the stored column directly, without copying it.
+	 * 
+	 * @param name the name of the column
+	 * @return a read-only buffer over the values in a column
+	 */
+	public DoubleBuffer getColumnView(String name) {
+		return getColumnView(getColumnIndex(name));
+	}
+	
+	/***
+	 * Returns a read-only buffer over the values in a column. With the COLUMNS 
+	 * layout the buffer reads the stored column directly, without copying it.
+	 * 
+	 * @param column the handle of the column
+	 * @return a read-only buffer over the values in a column
+	 */
+	public DoubleBuffer getColumnView(CSVColumn column) {
+		return getColumnView(column.getIndex());
+	}
+	
+	/***
+	 * Returns the count, sum, minimum, maximum, mean and variance of a column. 
+	 * They are computed without copying the column in any layout, and kept until 
+	 * a set method, swapColumns or readNewRows changes the column. Changes made 
+	 * through an array returned by getRow are not seen.
+	 * 
+	 * @param columnIndex the index of the column
+	 * @return the statistics of the column
+	 */
+	public ColumnStats getColumnStats(int columnIndex) {
+		if (columnStats == null) columnStats = new ColumnStats[columnNames.length];
+		
+		if (columnStats[columnIndex] == null) columnStats[columnIndex] = storage.getColumnStats(columnIndex);
+		return columnStats[columnIndex];
+	}
+	
+	/***
+	 * Returns the count, sum, minimum, maximum, mean and variance of a column
+	 * 
+	 * @param name the name of the column
+	 * @return the statistics of the column
+	 */
+	public ColumnStats getColumnStats(String name) {
+		return getColumnStats(getColumnIndex(name));
+	}
+	
+	/***
+	 * Returns the count, sum, minimum, maximum, mean and variance of a column
+	 * 
+	 * @param column the handle of the column
+	 * @return the statistics of the column
+	 */
+	public ColumnStats getColumnStats(CSVColumn column) {
+		return getColumnStats(column.getIndex());
+	}
+	
+	/***
+	 * Forgets the statistics of a column so they are computed again
+	 * 
+	 * @param columnIndex the index of the column that changed
+	 */
+	private void invalidateColumnStats(int columnIndex) {
+		if (columnStats != null) columnStats[columnIndex] = null;
+	}
+	
+	/***
+	 * Returns all the values from multiple rows. 
+	 * It keeps the rows sorted.
+	 * 
+	 * @param rowIndexes the indexes of the rows
+	 * @return all the values from multiple rows
+	 */
+	public double[][] getRows(int[] rowIndexes) {
+		double[][] output = new double[rowIndexes.length][];
+		
+		for (int i = 0; i < rowIndexes.length; i++) 
+			output[i] = storage.getRow(rowIndexes[i]);
+		
+		return output;
+	}
+	
+	/***
+	 * Returns all the values from rows between a start row and an end row. 
+	 * It keeps the rows sorted.
+	 * 
+	 * @param startIndex the row index to start from
+	 * @param endIndex the column index to start from
+	 * @return all the values in the rows
+	 */
+	public double[][] getRows(int startIndex, int endIndex) {
+		int difference = endIndex - startIndex, currentIndex = 0;
+		double[][] output = new double[difference + 1][];
+		
+		for (int i = startIndex; i <= endIndex; i++) 
+			output[currentIndex++] = storage.getRow(i);
+		
+		return output;
+	}
+	
+	/***
+	 * Returns all the values in columns. 
+	 * It keeps the columns sorted.
+	 * 
+	 * @param columnIndexes the indexes of the columns to return
+	 * @return the values in the columns specified
+	 */
+	public double[][] getColumns(int[] columnIndexes) {
+		double[][] output = new double[columnIndexes.length][];
+		
+		for (int i = 0; i < columnIndexes.length; i++) 
+			output[i] = getColumn(columnIndexes[i]);
+		
+		return output;
+	}
+	
+	/***
+	 * Returns all the values in columns. 
+	 * It keeps the columns sorted.
+	 * 
+	 * @param startIndex the index to start from
+	 * @param endIndex the index to end at
+	 * @return the values in the columns specified
+	 */
+	public double[][] getColumns(int startIndex, int endIndex) {
+		int difference = endIndex-startIndex;
+		double[][] output = new double[difference][];
+		
+		for (int i = 0; i < difference; i++) 
+			output[i] = getColumn(startIndex+i);
+		
+		return output;
+	}
+	
+	/***
+	 * Returns all the values in columns. 
+	 * It keeps the columns sorted.
+	 * 
+	 * @param colNames the names of the columns to return values from
+	 * @return the values in the columns specified
+	 */
+	public double[][] getColumns(String[] colNames) {
+		int[] columnIndexes = new int[colNames.length];
+		
+		for (int i = 0; i < colNames.length; i++) 
+			columnIndexes[i] = getColumnIndex(colNames[i]);
+		
+		return getColumns(columnIndexes);
+	}
+	
+	/***
+	 * Returns a view over every row and column that reads the values in place
+	 * 
+	 * @return the view
+	 */
+	public CSVView view() {
+		int[] columnIndexes = new int[columnNames.length];
+		for (int j = 0; j < columnIndexes.length; j++)
+			columnIndexes[j] = j;
+		
+		return new CSVView(storage, columnNames.clone(), columnIndexes, null, 0, storage.getNumRows());
+	}
+	
+	/***
+	 * Returns a view over the rows between a start row and an end row that reads 
+	 * the values in place instead of copying them
+	 * 
+	 * @param startIndex the first row to include
+	 * @param endIndex the row after the last one to include
+	 * @return the view over those rows
+	 */
+	public CSVView viewRows(int startIndex, int endIndex) {
+		return view().viewRows(startIndex, endIndex);
+	}
+	
+	/***
+	 * Returns a view over some of the rows, in the order given, that reads 
+	 * the values in place instead of copying them
+	 * 
+	 * @param rowIndexes the indexes of the rows to include
+	 * @return the view over those rows
+	 */
+	public CSVView viewRows(int[] rowIndexes) {
+		return view().viewRows(rowIndexes);
+	}
+	
+	/***
+	 * Returns a view over some of the columns, in the order given, that reads 
+	 * the values in place instead of copying them. The view keeps reading the 
+	 * same column positions after swapColumns.
+	 * 
+	 * @param columnIndexes the indexes of the columns to include
+	 * @return the view over those columns
+	 */
+	public CSVView viewColumns(int[] columnIndexes) {
+		return view().viewColumns(columnIndexes);
+	}
+	
+	/***
+	 * Returns a view over some of the columns, in the order given, that reads 
+	 * the values in place instead of copying them
+	 * 
+	 * @param colNames the names of the columns to include
+	 * @return the view over those columns
+	 */
+	public CSVView viewColumns(String[] colNames) {
+		int[] columnIndexes = new int[colNames.length];
+		
+		for (int i = 0; i < colNames.length; i++) 
+			columnIndexes[i] = getColumnIndex(colNames[i]);
+		
+		return viewColumns(columnIndexes);
+	}
+	
+	/***
+	 * Sets the column that holds the time of each row. Defaults to the column read 
+	 * from the first field of the file, or to the first elapsed time column of the transform.
+	 * 
+	 * @param columnIndex the index of the time column
+	 */
+	public void setTimeColumn(int columnIndex) {
+		if (columnIndex < 0 || columnIndex >= columnNames.length) 
+			throw new IndexOutOfBoundsException("Column " + columnIndex + " does not exist");
+		
+		this.timeColumn = columnIndex;
+		this.numTimeRowsSorted = 0;
+	}
+	
+	/***
+	 * Sets the column that holds the time of each row
+	 * 
+	 * @param colName the name of the time column
+	 */
+	public void setTimeColumn(String colName) {
+		setTimeColumn(getColumnIndex(colName));
+	}
+	
+	/***
+	 * Returns the index of the column that holds the time of each row
+	 * 
+	 * @return the index of the time column
+	 */
+	public int getTimeColumn() {
+		return timeColumn;
+	}
+	
+	/***
+	 * Returns whether the time column never decreases, so rowsBetween and 
+	 * nearestRow can be used. Only rows that changed since the last check 
+	 * are looked at again.
+	 * 
+	 * @return whether the time column is sorted
+	 */
+	public boolean isTimeSorted() {
+		int numRows = storage.getNumRows();
+		
+		for (int i = Math.max(numTimeRowsSorted, 1); i < numRows; i++) {
+			// written so that NaN also fails
+			if (!(storage.get(i, timeColumn) >= storage.get(i-1, timeColumn))) {
+				numTimeRowsSorted = i;
+				return false;
+			}
+		}
+		
+		numTimeRowsSorted = numRows;
+		return true;
+	}
+	
+	/***
+	 * Returns a view over the rows with a time from startTime up to but not 
+	 * including endTime, found by binary search instead of a scan. The values 
+	 * are read in place.
+	 * 
+	 * @param startTime the earliest time to include
+	 * @param endTime the time after the last one to include
+	 * @return the view over those rows
+	 * @throws IllegalStateException if the time column is not sorted
+	 */
+	public CSVView rowsBetween(double startTime, double endTime) {
+		checkTimeSorted();
+		
+		int startIndex = firstRowAtOrAfter(startTime);
+		int endIndex = Math.max(startIndex, firstRowAtOrAfter(endTime));
+		
+		return viewRows(startIndex, endIndex);
+	}
+	
+	/***
+	 * Returns the row whose time is closest to a time, found by binary search. 
+	 * A tie goes to the earlier row, and of several rows with the same time the 
+	 * first one is returned.
+	 * 
+	 * @param time the time to look for
+	 * @return the index of the closest row, or -1 if there are no rows
+	 * @throws IllegalStateException if the time column is not sorted
+	 */
+	public int nearestRow(double time) {
+		checkTimeSorted();
+		
+		int numRows = storage.getNumRows();
+		if (numRows == 0) return -1;
+		
+		int after = firstRowAtOrAfter(time);
+		if (after == 0) return 0;
+		if (after == numRows) return numRows - 1;
+		
+		double before = storage.get(after-1, timeColumn);
+		if (storage.get(after, timeColumn) - time < time - before) return after;
+		
+		// rows before it may have the same time
+		return firstRowAtOrAfter(before);
+	}
+	
+	/***
+	 * Returns the first row whose time is at or after a time. 
+	 * The time column must be sorted.
+	 * 
+	 * @param time the time to look for
+	 * @return the index of the row, or the number of rows if every time is earlier
+	 */
+	private int firstRowAtOrAfter(double time) {
+		int low = 0, high = storage.getNumRows();
+		
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (storage.get(middle, timeColumn) < time) low = middle + 1;
+			else high = middle;
+		}
+		
+		return low;
+	}
+	
+	/***
+	 * Makes sure the time column can be searched
+	 * 
+	 * @throws IllegalStateException if the time column is not sorted
+	 */
+	private void checkTimeSorted() {
+		if (!isTimeSorted()) 
+			throw new IllegalStateException("The time column " + columnNames[timeColumn] + " decreases at row " + numTimeRowsSorted);
+	}
+	
+	/***
+	 * Puts the rows into buckets of a fixed time interval, starting at the 
+	 * first time, and returns one row per bucket in a new CSVData stored by 
+	 * column. The time of each row is the start of its bucket, and buckets 
+	 * without rows are left out. Large data is split over the columns and 
+	 * chunks of rows and resampled on several threads.
+	 * 
+	 * @param interval the length of each bucket, in the units of the time column
+	 * @param aggregation how the values of a bucket become one value
+	 * @return the resampled data
+	 * @throws IllegalStateException if the time column is not sorted
+	 */
+	public CSVData resample(double interval, CSVResampler.Aggregation aggregation) {
+		checkTimeSorted();
+		
+		return derive(CSVResampler.resample(storage, timeColumn, interval, aggregation));
+	}
+	
+	/***
+	 * Picks the rows that best keep the shape of one column plotted against 
+	 * time, using Largest-Triangle-Three-Buckets, and returns them in a new 
+	 * CSVData stored by column. The first and last rows are always kept.
+	 * 
+	 * @param numPoints the number of rows to keep, at least 3
+	 * @param columnIndex the index of the column whose shape is kept
+	 * @return the picked rows
+	 * @throws IllegalStateException if the time column is not sorted
+	 */
+	public CSVData downsample(int numPoints, int columnIndex) {
+		checkTimeSorted();
+		
+		return derive(CSVResampler.downsample(storage, timeColumn, columnIndex, numPoints));
+	}
+	
+	/***
+	 * Picks the rows that best keep the shape of one column plotted against time
+	 * 
+	 * @param numPoints the number of rows to keep, at least 3
+	 * @param colName the name of the column whose shape is kept
+	 * @return the picked rows
+	 * @throws IllegalStateException if the time column is not sorted
+	 */
+	public CSVData downsample(int numPoints, String colName) {
+		return downsample(numPoints, getColumnIndex(colName));
+	}
+	
+	/***
+	 * Joins the rows of this and another CSVData object that have the same time, 
+	 * with one merge over both time columns, which must be sorted. Each row holds 
+	 * the columns of this object, then the columns of the other without its time, 
+	 * with CSVJoiner.RIGHT_SUFFIX added to any name this object already has. Rows 
+	 * without a match are left out, and a time that appears several times on both 
+	 * sides gives every pairing.
+	 * 
+	 * @param other the data to join with
+	 * @return the joined data, stored by column
+	 * @throws IllegalStateException if either time column is not sorted
+	 */
+	public CSVData join(CSVData other) {
+		return join(other, timeColumn, other.timeColumn);
+	}
+	
+	/***
+	 * Joins the rows of this and another CSVData object whose keys are equal, 
+	 * with one merge over both key columns, which must be sorted
+	 * 
+	 * @param other the data to join with
+	 * @param columnIndex the index of the key column of this object
+	 * @param otherColumnIndex the index of the key column of the other object
+	 * @return the joined data, stored by column
+	 * @throws IllegalStateException if either key column is not sorted
+	 */
+	public CSVData join(CSVData other, int columnIndex, int otherColumnIndex) {
+		CSVStorage joined = CSVJoiner.join(storage, columnIndex, other.storage, otherColumnIndex);
+		
+		return derive(joined, CSVJoiner.joinNames(columnNames, other.columnNames, otherColumnIndex));
+	}
+	
+	/***
+	 * Lines up every row of this object with the row of another CSVData object 
+	 * whose time is nearest, if it is within a tolerance, with one merge over both 
+	 * time columns, which must be sorted. Each row holds the columns of this object, 
+	 * then the columns of the other without its time, which are NaN when no row 
+	 * was near enough. Names this object already has get CSVJoiner.RIGHT_SUFFIX added.
+	 * 
+	 * @param other the data to line up with
+	 * @param tolerance the largest difference in time that still matches
+	 * @return the joined data with one row for each row of this object, stored by column
+	 * @throws IllegalStateException if either time column is not sorted
+	 */
+	public CSVData joinNearest(CSVData other, double tolerance) {
+		return joinNearest(other, timeColumn, other.timeColumn, tolerance);
+	}
+	
+	/***
+	 * Lines up every row of this object with the row of another CSVData object 
+	 * whose key is nearest, if it is within a tolerance
+	 * 
+	 * @param other the data to line up with
+	 * @param columnIndex the index of the key column of this object
+	 * @param otherColumnIndex the index of the key column of the other object
+	 * @param tolerance the largest difference between keys that still matches
+	 * @return the joined data with one row for each row of this object, stored by column
+	 * @throws IllegalStateException if either key column is not sorted
+	 */
+	public CSVData joinNearest(CSVData other, int columnIndex, int otherColumnIndex, double tolerance) {
+		CSVStorage joined = CSVJoiner.joinNearest(storage, columnIndex, other.storage, otherColumnIndex, tolerance);
+		
+		return derive(joined, CSVJoiner.joinNames(columnNames, other.columnNames, otherColumnIndex));
+	}
+	
+	/***
+	 * Creates a CSVData object with the same columns and time column as this one
+	 * 
+	 * @param storage the values of the new object
+	 * @return the new object
+	 */
+	private CSVData derive(CSVStorage storage) {
+		return derive(storage, columnNames.clone());
+	}
+	
+	/***
+	 * Creates a CSVData object with other columns but the same time column as this one
+	 * 
+	 * @param storage the values of the new object
+	 * @param columnNames the names of the columns of the new object
+	 * @return the new object
+	 */
+	private CSVData derive(CSVStorage storage, String[] columnNames) {
+		CSVData data = new CSVData(filePathToCSV, columnNames, storage);
+		data.timeColumn = timeColumn;
+		data.listener = listener;
+		
+		return data;
+	}
+	
+	/***
+	 * Returns the order that sorts the rows by some columns, without moving them. 
+	 * Rows with the same values keep their order, and NaN sorts after every 
+	 * number when ascending. Large data is sorted on several threads.
+	 * 
+	 * @param columnIndexes the indexes of the columns to sort by, the most important first
+	 * @param ascending whether each column is sorted from the smallest value up
+	 * @return the index of the row that goes in each place
+	 */
+	public int[] getSortOrder(int[] columnIndexes, boolean[] ascending) {
+		return CSVSorter.sortOrder(storage, columnIndexes, ascending);
+	}
+	
+	/***
+	 * Sorts the rows by one column
+	 * 
+	 * @param columnIndex the index of the column to sort by
+	 * @param ascending whether the smallest value comes first
+	 */
+	public void sortBy(int columnIndex, boolean ascending) {
+		sortBy(new int[] {columnIndex}, new boolean[] {ascending});
+	}
+	
+	/***
+	 * Sorts the rows by one column
+	 * 
+	 * @param colName the name of the column to sort by
+	 * @param ascending whether the smallest value comes first
+	 */
+	public void sortBy(String colName, boolean ascending) {
+		sortBy(getColumnIndex(colName), ascending);
+	}
+	
+	/***
+	 * Sorts the rows by several columns, using each column to order the rows 
+	 * that are the same in the columns before it. The statistics of the columns 
+	 * are kept, because they do not depend on the order.
+	 * 
+	 * @param columnIndexes the indexes of the columns to sort by, the most important first
+	 * @param ascending whether each column is sorted from the smallest value up
+	 */
+	public void sortBy(int[] columnIndexes, boolean[] ascending) {
+		storage.permuteRows(getSortOrder(columnIndexes, ascending));
+		this.numTimeRowsSorted = 0;
+	}
+	
+	/***
+	 * Sorts the rows by several columns
+	 * 
+	 * @param colNames the names of the columns to sort by, the most important first
+	 * @param ascending whether each column is sorted from the smallest value up
+	 */
+	public void sortBy(String[] colNames, boolean[] ascending) {
+		int[] columnIndexes = new int[colNames.length];
+		
+		for (int i = 0; i < colNames.length; i++) 
+			columnIndexes[i] = getColumnIndex(colNames[i]);
+		
+		sortBy(columnIndexes, ascending);
+	}
+	
+	/***
+	 * Returns a view over the rows sorted by one column, leaving the rows where they are
+	 * 
+	 * @param columnIndex the index of the column to sort by
+	 * @param ascending whether the smallest value comes first
+	 * @return the sorted view
+	 */
+	public CSVView viewSortedBy(int columnIndex, boolean ascending) {
+		return viewSortedBy(new int[] {columnIndex}, new boolean[] {ascending});
+	}
+	
+	/***
+	 * Returns a view over the rows sorted by several columns, leaving the rows where they are
+	 * 
+	 * @param columnIndexes the indexes of the columns to sort by, the most important first
+	 * @param ascending whether each column is sorted from the smallest value up
+	 * @return the sorted view
+	 */
+	public CSVView viewSortedBy(int[] columnIndexes, boolean[] ascending) {
+		return viewRows(getSortOrder(columnIndexes, ascending));
+	}
+	
+	/***
+	 * Forgets that the time column is sorted from a row on, if the change is to the time column
+	 * 
+	 * @param rowIndex the first row that changed
+	 * @param columnIndex the column that changed
+	 */
+	private void invalidateTimeIndex(int rowIndex, int columnIndex) {
+		if (columnIndex == timeColumn) numTimeRowsSorted = Math.min(numTimeRowsSorted, rowIndex);
+	}
+	
+	/***
+	 * Returns one value
+	 * 
+	 * @param rowIndex the row index
+	 * @param colIndex the column index
+	 * @return the value at that point
+	 */
+	public double getValue(int rowIndex, int colIndex) {
+		return storage.get(rowIndex, colIndex);
+	}
+	
+	/***
+	 * Returns one value
+	 * 
+	 * @param rowIndex the row index
+	 * @param column the handle of the column
+	 * @return the value at that point
+	 */
+	public double getValue(int rowIndex, CSVColumn column) {
+		return storage.get(rowIndex, column.getIndex());
+	}
+	
+	/***
+	 * Sets a value at a specific spot
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the value to save
+	 */
+	public void setValue(int rowIndex, int columnIndex, double value) {
+		storage.set(rowIndex, columnIndex, value);
+		invalidateColumnStats(columnIndex);
+		invalidateTimeIndex(rowIndex, columnIndex);
+	}
+	
+	/***
+	 * Sets a value at a specific spot
+	 * 
+	 * @param rowIndex the row index
+	 * @param column the handle of the column
+	 * @param value the value to save
+	 */
+	public void setValue(int rowIndex, CSVColumn column, double value) {
+		setValue(rowIndex, column.getIndex(), value);
+	}
+	
+	/***
+	 * Returns then sets a value at a specific spot 
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the value to store
+	 * @return the old value in that spot
+	 */
+	public double returnSetValue(int rowIndex, int columnIndex, double value) {
+		double output = storage.get(rowIndex, columnIndex);
+		
+		storage.set(rowIndex, columnIndex, value);
+		invalidateColumnStats(columnIndex);
+		invalidateTimeIndex(rowIndex, columnIndex);
+		
+		return output;
+	}
+	
+	/***
+	 * Sets a full row
+	 * 
+	 * @param rowIndex the index for the row to replace
+	 * @param rowValues the values to save into the row
+	 */
+	public void setRow(int rowIndex, double[] rowValues) {
+		storage.setRow(rowIndex, rowValues);
+		this.columnStats = null;
+		invalidateTimeIndex(rowIndex, timeColumn);
+	}
+	
+	/***
+	 * Sets a full column
+	 * 
+	 * @param columnIndex the index of the column
+	 * @param columnValues the values to store in the column
+	 */
+	public void setColumn(int columnIndex, double[] columnValues) {
+		storage.setColumn(columnIndex, columnValues);
+		invalidateColumnStats(columnIndex);
+		invalidateTimeIndex(0, columnIndex);
+	}
+	
+	/***
+	 * Sets a full column
+	 * 
+	 * @param colName the name of the column to set
+	 * @param columnValues the values to store in the column
+	 */
+	public void setColumn(String colName, double[] columnValues) {
+		int columnIndex = getColumnIndex(colName);
+		
+		setColumn(columnIndex, columnValues);
+	}
+	
+	/***
+	 * Sets all the data to the input data. The rows are used directly 
+	 * and the layout becomes ROWS.
+	 * 
+	 * @param data the double array data
+	 */
+	public void setData(double[][] data) {
+		this.storage = new RowStorage(data);
+		this.columnStats = null;
+		this.numTimeRowsSorted = 0;
+	}
+	
+	/***
+	 * Returns the column titles
+	 * 
+	 * @return the column titles
+	 */
+	public String[] getColumnTitles() {
+		return columnNames;
+	}
+	
+	/***
+	 * Returns the number of rows
+	 * 
+	 * @return the number of rows
+	 */
+	public int getNumRows() {
+		return storage.getNumRows();
+	}
+	
+	/***
+	 * Saves the current state of the file
+	 * 
+	 * @param filepath the file path to save the file (something like /Users/naman/Desktop/state1.txt)
+	 */
+	public void saveCurrentState(String filepath) {
+		File outFile = new File(filepath);
+		
+		try (OutputStream out = new FileOutputStream(outFile)) {
+			export(new CSVWriter(out), filepath);
+		} catch (Exception e) {
+			reportError(filepath, e);
+		}
+	}
+	
+	/***
+	 * Writes the same text as dataToString to a Writer, one buffer at a time
+	 * 
+	 * @param writer where the text goes
+	 * @throws IOException if the text can not be written
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		export(new CSVWriter(writer), null);
+	}
+	
+	/***
+	 * Writes the same text as dataToString to an OutputStream as UTF-8, one buffer at a time
+	 * 
+	 * @param out where the text goes
+	 * @throws IOException if the text can not be written
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		export(new CSVWriter(out), null);
+	}
+	
+	/***
+	 * Writes the same text as dataToString to a WritableByteChannel as UTF-8, one buffer at a time
+	 * 
+	 * @param channel where the text goes
+	 * @throws IOException if the text can not be written
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		export(new CSVWriter(channel), null);
+	}
+	
+	/***
+	 * Writes every row through a writer and reports how long it took
+	 * 
+	 * @param writer the writer for the destination
+	 * @param filepath the file being written, or null
+	 * @throws IOException if the text can not be written
+	 */
+	private void export(CSVWriter writer, String filepath) throws IOException {
+		CSVEvents.Export event = new CSVEvents.Export();
+		event.begin();
+		long start = System.nanoTime();
+		
+		writer.write(columnNames, storage, 0, storage.getNumRows());
+		
+		CSVEvents.finish(event, new CSVStats(CSVStats.Operation.EXPORT, filepath, writer.getNumBytesWritten(), 
+				storage.getNumRows(), 0, System.nanoTime() - start, writer.getIONanos(), CSVWriter.BUFFER_SIZE), listener);
+	}
+	
+	/***
+	 * Sets the listener that receives measurements of exports and the errors 
+	 * that would otherwise be printed
+	 * 
+	 * @param listener the listener, or null to print errors
+	 */
+	public void setListener(CSVListener listener) {
+		this.listener = listener;
+	}
+	
+	/***
+	 * Hands an error to the listener, or prints it if there is none
+	 * 
+	 * @param filepath the file that was being read or written
+	 * @param error what went wrong
+	 */
+	private void reportError(String filepath, Exception error) {
+		if (listener != null) listener.failed(filepath, error);
+		else error.printStackTrace();
+	}
+	
+	
+	/***
+	 * Saves the current state as a binary snapshot that loadSnapshot can map back 
+	 * in without parsing. Use saveCurrentState for a text file other programs can read.
+	 * 
+	 * @param filepath the file path to save the snapshot
+	 */
+	public void saveSnapshot(String filepath) {
+		try {
+			CSVSnapshot.write(this.columnNames, this.storage, filepath);
+		} catch (IOException e) {
+			reportError(filepath, e);
+		}
+	}
+	
+	/***
+	 * Loads a snapshot saved by saveSnapshot. The file is memory mapped so the 
+	 * values are available right away and are stored in the OFF_HEAP layout. 
+	 * The values are read only: setting a value or sorting the rows throws a 
+	 * ReadOnlyBufferException, and the file is never changed.
+	 * 
+	 * @param filepath the path to the snapshot
+	 * @return a CSVData object for that snapshot
+	 * @throws IOException if the file can not be read or is not a snapshot
+	 */
+	public static CSVData loadSnapshot(String filepath) throws IOException {
+		CSVSnapshot snapshot = CSVSnapshot.load(filepath);
+		
+		return new CSVData(filepath, snapshot.getColumnNames(), snapshot.getStorage());
+	}
+	
+	/***
+	 * Finds the index for the column specified by name. 
+	 * Returns -1 if the name is invalid
+	 * 
+	 * @param colName the name of the column
+	 * @return the column index
+	 */
+	public int getColumnIndex(String colName) {
+		CSVColumn column = getColumnHandle(colName);
+		
+		return column == null ? -1 : column.getIndex();
+	}
+	
+	/***
+	 * Finds the handle for the column specified by name. The handle can be kept 
+	 * to skip the lookup and keeps pointing at the column after swapColumns. 
+	 * Returns null if the name is invalid
+	 * 
+	 * @param colName the name of the column
+	 * @return the column handle
+	 */
+	public CSVColumn getColumnHandle(String colName) {
+		if (columnsByName == null) indexColumnNames();
+		
+		CSVColumn column = columnsByName.get(colName);
+		if (column != null && colName.equals(columnNames[column.getIndex()])) return column;
+		
+		// the titles array from getColumnTitles may have been changed directly
+		if (!isColumnIndexStale()) return null;
+		indexColumnNames();
+		return columnsByName.get(colName);
+	}
+	
+	/***
+	 * Builds the hash lookup from the column names. Handles that were already 
+	 * given out are reused for the names that still exist.
+	 */
+	private void indexColumnNames() {
+		Map<String, CSVColumn> oldColumns = columnsByName == null ? new HashMap<>() : columnsByName;
+		
+		columnHandles = new CSVColumn[columnNames.length];
+		columnsByName = new HashMap<>(columnNames.length * 2);
+		
+		for (int i = 0; i < columnNames.length; i++) {
+			CSVColumn handle = oldColumns.remove(columnNames[i]);
+			if (handle == null) handle = new CSVColumn(columnNames[i], i);
+			handle.setIndex(i);
+			
+			columnHandles[i] = handle;
+			// the first column with a name wins, like the old linear search
+			columnsByName.putIfAbsent(columnNames[i], handle);
+		}
+	}
+	
+	/***
+	 * Returns whether the column names changed without going through this class
+	 * 
+	 * @return whether the hash lookup needs to be rebuilt
+	 */
+	private boolean isColumnIndexStale() {
+		if (columnHandles.length != columnNames.length) return true;
+		
+		for (int i = 0; i < columnNames.length; i++) 
+			if (!columnNames[i].equals(columnHandles[i].getName())) return true;
+		
+		return false;
+	}
+	
+	/***
+	 * Frees the memory of the OFF_HEAP layout right away. Nothing happens for 
+	 * the other layouts. The object can not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		storage.close();
+	}
+	
+	public String getFilePath() {
+		return filePathToCSV;
+	}
+	
+	/***
+	 * Returns a string that contains the titles, and data in the rows specified
+	 * 
+	 * @param startIndex the starting index
+	 * @param numRows the number of rows to get the data from
+	 * @return a string version of those rows after the titles
+	 */
+	public String displayNRows(int startIndex, int numRows) {
+		return rowsToString(startIndex, numRows);
+	}
+	
+	/***
+	 * Returns a string version of the CSVData object that could be turned into a .txt file
+	 * @return a string version of the CSVData object that could be turned into a .txt file
+	 */
+	public String dataToString() {
+		return rowsToString(0, storage.getNumRows());
+	}
+	
+	/***
+	 * Returns a string that contains the titles and the rows between a start row and an end row
+	 * 
+	 * @param startIndex the first row
+	 * @param endIndex the row after the last row
+	 * @return a string version of those rows after the titles
+	 */
+	private String rowsToString(int startIndex, int endIndex) {
+		StringWriter output = new StringWriter();
+		
+		try {
+			new CSVWriter(output).write(columnNames, storage, startIndex, endIndex);
+		} catch (IOException e) {
+			// a StringWriter never throws
+			throw new UncheckedIOException(e);
+		}
+		
+		return output.toString();
+	}
+	
+	/***
+	 * Corrects the time to elapsed time
+	 * @param a a CSV Data object
+	 */
+	public static void correctTime(CSVData a) {
+		double startTime = a.getValue(0, 0);
+		int numTimeRowsSorted = a.numTimeRowsSorted;
+		
+		for (int i = 0; i < a.getNumRows(); i++)
+			a.setValue(i, 0, a.getValue(i, 0) - startTime);
+		
+		// shifting every time by the same amount keeps them in order
+		a.numTimeRowsSorted = numTimeRowsSorted;
+		a.renameColumn(0, "Elapsed Time");
+	}
+	
+}
@@ -0,0 +1,104 @@
+package csvhelper;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/***
+ * Java Flight Recorder events for the loads and exports of CSVData objects. 
+ * They are recorded whenever a recording has them enabled, which they are by 
+ * default, and cost almost nothing otherwise.
+ *
+ */
+public class CSVEvents {
+	/***
+	 * A file or stream that was loaded
+	 */
+	@Name("CSVData.Load")
+	@Label("CSV Load")
+	@Category("CSVData")
+	@Description("A numerical CSV file or stream that was parsed")
+	static class Load extends Event {
+		@Label("File")
+		String filepath;
+
+		@Label("Bytes Read")
+		@DataAmount
+		long numBytes;
+
+		@Label("Rows")
+		long numRows;
+
+		@Label("Malformed Lines")
+		long numMalformedLines;
+
+		@Label("I/O Time")
+		@Timespan
+		long ioNanos;
+
+		@Label("Peak Buffer Size")
+		@DataAmount
+		long peakBufferSize;
+	}
+
+	/***
+	 * Values that were written out as text
+	 */
+	@Name("CSVData.Export")
+	@Label("CSV Export")
+	@Category("CSVData")
+	@Description("The values of a CSVData object written out as text")
+	static class Export extends Event {
+		@Label("File")
+		String filepath;
+
+		@Label("Bytes Written")
+		@DataAmount
+		long numBytes;
+
+		@Label("Rows")
+		long numRows;
+
+		@Label("I/O Time")
+		@Timespan
+		long ioNanos;
+	}
+
+	/***
+	 * Ends an event that was begun when the work started and hands the measurements 
+	 * to the listener. The event's fields are only filled in if it is recorded.
+	 * 
+	 * @param event the event begun when the work started
+	 * @param stats the measurements
+	 * @param listener the listener, or null
+	 */
+	static void finish(Event event, CSVStats stats, CSVListener listener) {
+		event.end();
+		if (event.shouldCommit()) {
+			if (event instanceof Load) {
+				Load load = (Load) event;
+				load.filepath = stats.getFilePath();
+				load.numBytes = stats.getNumBytes();
+				load.numRows = stats.getNumRows();
+				load.numMalformedLines = stats.getNumMalformedLines();
+				load.ioNanos = stats.getIONanos();
+				load.peakBufferSize = stats.getPeakBufferSize();
+			} else if (event instanceof Export) {
+				Export export = (Export) event;
+				export.filepath = stats.getFilePath();
+				export.numBytes = stats.getNumBytes();
+				export.numRows = stats.getNumRows();
+				export.ioNanos = stats.getIONanos();
+			}
+			event.commit();
+		}
+
+		if (listener == null) return;
+		if (stats.getOperation() == CSVStats.Operation.LOAD) listener.loadFinished(stats);
+		else listener.exportFinished(stats);
+	}
+}
@@ -0,0 +1,232 @@
+package csvhelper;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/***
+ * Lines up the rows of two tables by a key column, usually time, with one
+ * merge over both tables. Both key columns must already be sorted, so each
+ * table is walked once from the top and the join takes time in proportion to
+ * the number of rows read and written. The rows are counted before anything is
+ * copied, so the result is allocated once at its final size.
+ *
+ */
+public class CSVJoiner {
+	/** added to a column name of the right table that the joined table already has */
+	public static final String RIGHT_SUFFIX = "_right";
+
+	/***
+	 * Joins the rows whose keys are equal. Every row on the left is joined with
+	 * every row on the right that has the same key, and rows without a match are
+	 * left out. Each row holds the columns of the left table, then the columns of
+	 * the right table without its key.
+	 *
+	 * @param left the left table
+	 * @param leftKey the index of the key column of the left table
+	 * @param right the right table
+	 * @param rightKey the index of the key column of the right table
+	 * @return the joined rows
+	 * @throws IllegalStateException if a key column is not sorted
+	 */
+	static CSVStorage join(CSVStorage left, int leftKey, CSVStorage right, int rightKey) {
+		checkSorted(left, leftKey, "left");
+		checkSorted(right, rightKey, "right");
+
+		int numRows = mergeEqual(left, leftKey, right, rightKey, null);
+		ColumnStorage output = createOutput(left, right, numRows);
+		mergeEqual(left, leftKey, right, rightKey, output);
+
+		return output;
+	}
+
+	/***
+	 * Joins every row on the left with the row on the right whose key is nearest,
+	 * if it is within a tolerance. A tie goes to the earlier row. Rows on the left
+	 * without a match are kept with NaN in the columns of the right table.
+	 *
+	 * @param left the left table
+	 * @param leftKey the index of the key column of the left table
+	 * @param right the right table
+	 * @param rightKey the index of the key column of the right table
+	 * @param tolerance the largest distance between two keys that still match
+	 * @return the joined rows, one for each row on the left
+	 * @throws IllegalStateException if a key column is not sorted
+	 */
+	static CSVStorage joinNearest(CSVStorage left, int leftKey, CSVStorage right, int rightKey, double tolerance) {
+		if (!(tolerance >= 0)) throw new IllegalArgumentException("The tolerance can not be negative but is " + tolerance);
+		checkSorted(left, leftKey, "left");
+		checkSorted(right, rightKey, "right");
+
+		int numLeftRows = left.getNumRows(), numRightRows = right.getNumRows();
+		int numLeftColumns = left.getNumColumns();
+		ColumnStorage output = createOutput(left, right, numLeftRows);
+
+		int r = 0, runStart = 0;
+		for (int i = 0; i < numLeftRows; i++) {
+			double key = left.get(i, leftKey);
+
+			// r becomes the last row on the right at or before the key, or the first row, 
+			// and runStart the first row with the same key as r
+			while (r + 1 < numRightRows && right.get(r + 1, rightKey) <= key) {
+				r++;
+				if (right.get(r, rightKey) != right.get(r - 1, rightKey)) runStart = r;
+			}
+
+			int match = -1;
+			if (numRightRows > 0) {
+				match = runStart;
+				double distance = Math.abs(right.get(r, rightKey) - key);
+				if (r + 1 < numRightRows && right.get(r + 1, rightKey) - key < distance) {
+					match = r + 1;
+					distance = right.get(r + 1, rightKey) - key;
+				}
+				if (!(distance <= tolerance)) match = -1;
+			}
+
+			for (int j = 0; j < numLeftColumns; j++)
+				output.set(i, j, left.get(i, j));
+			copyRightRow(right, match, rightKey, output, i, numLeftColumns);
+		}
+
+		return output;
+	}
+
+	/***
+	 * Walks both tables joining the rows with equal keys, either only counting
+	 * them or also copying them
+	 *
+	 * @param left the left table
+	 * @param leftKey the index of the key column of the left table
+	 * @param right the right table
+	 * @param rightKey the index of the key column of the right table
+	 * @param output where the joined rows are copied, or null to only count them
+	 * @return the number of joined rows
+	 */
+	private static int mergeEqual(CSVStorage left, int leftKey, CSVStorage right, int rightKey, ColumnStorage output) {
+		int numLeftRows = left.getNumRows(), numRightRows = right.getNumRows();
+		int numLeftColumns = left.getNumColumns();
+		int i = 0, r = 0;
+		long numRows = 0;
+
+		while (i < numLeftRows && r < numRightRows) {
+			double leftValue = left.get(i, leftKey), rightValue = right.get(r, rightKey);
+
+			if (leftValue < rightValue) {
+				i++;
+			} else if (leftValue > rightValue) {
+				r++;
+			} else {
+				// every row in the run of equal keys on the left meets every row in the run on the right
+				int leftEnd = i + 1, rightEnd = r + 1;
+				while (leftEnd < numLeftRows && left.get(leftEnd, leftKey) == leftValue) leftEnd++;
+				while (rightEnd < numRightRows && right.get(rightEnd, rightKey) == rightValue) rightEnd++;
+
+				if (output != null) {
+					for (int a = i; a < leftEnd; a++) {
+						for (int b = r; b < rightEnd; b++) {
+							int row = (int) numRows++;
+							for (int j = 0; j < numLeftColumns; j++)
+								output.set(row, j, left.get(a, j));
+							copyRightRow(right, b, rightKey, output, row, numLeftColumns);
+						}
+					}
+				} else {
+					numRows += (long) (leftEnd - i) * (rightEnd - r);
+				}
+
+				i = leftEnd;
+				r = rightEnd;
+			}
+		}
+
+		if (numRows > Integer.MAX_VALUE) throw new IllegalStateException("The join has " + numRows + " rows, which is too many to store");
+		return (int) numRows;
+	}
+
+	/***
+	 * Copies the columns of a row on the right, except its key, into a joined row
+	 *
+	 * @param right the right table
+	 * @param rowIndex the row on the right, or -1 to fill the columns with NaN
+	 * @param rightKey the index of the key column of the right table
+	 * @param output the joined rows
+	 * @param row the joined row
+	 * @param firstColumn the column of the joined row the first column is copied into
+	 */
+	private static void copyRightRow(CSVStorage right, int rowIndex, int rightKey, ColumnStorage output, int row, int firstColumn) {
+		int column = firstColumn;
+
+		for (int j = 0; j < right.getNumColumns(); j++) {
+			if (j == rightKey) continue;
+			output.set(row, column++, rowIndex < 0 ? Double.NaN : right.get(rowIndex, j));
+		}
+	}
+
+	/***
+	 * Creates the storage for the joined rows at its final size
+	 *
+	 * @param left the left table
+	 * @param right the right table
+	 * @param numRows the number of joined rows
+	 * @return the storage, with every row reserved
+	 */
+	private static ColumnStorage createOutput(CSVStorage left, CSVStorage right, int numRows) {
+		int numColumns = left.getNumColumns() + Math.max(0, right.getNumColumns() - 1);
+
+		return new ColumnStorage(new double[numColumns][numRows], numRows);
+	}
+
+	/***
+	 * Makes sure a key column never decreases
+	 *
+	 * @param storage the table
+	 * @param columnIndex the index of the key column
+	 * @param side which table it is, for the error message
+	 * @throws IllegalStateException if the column is not sorted
+	 */
+	private static void checkSorted(CSVStorage storage, int columnIndex, String side) {
+		for (int i = 1; i < storage.getNumRows(); i++) {
+			// written so that NaN also fails
+			if (!(storage.get(i, columnIndex) >= storage.get(i-1, columnIndex)))
+				throw new IllegalStateException("The key column of the " + side + " table decreases at row " + i);
+		}
+	}
+
+	/***
+	 * Returns the names of the joined columns: the columns of the left table,
+	 * then the columns of the right table without its key. A right name that is
+	 * already taken gets RIGHT_SUFFIX added, as many times as it takes to make it
+	 * unique, so every column can still be found by name.
+	 *
+	 * @param leftNames the column names of the left table
+	 * @param rightNames the column names of the right table
+	 * @param rightKey the index of the key column of the right table
+	 * @return the joined column names
+	 */
+	static String[] joinNames(String[] leftNames, String[] rightNames, int rightKey) {
+		String[] names = new String[leftNames.length + Math.max(0, rightNames.length - 1)];
+		System.arraycopy(leftNames, 0, names, 0, leftNames.length);
+
+		// the suffixed names also avoid the right names still to come
+		Set<String> used = new HashSet<>(Arrays.asList(leftNames)), original = new HashSet<>();
+		for (int j = 0; j < rightNames.length; j++)
+			if (j != rightKey) original.add(rightNames[j]);
+
+		int column = leftNames.length;
+		for (int j = 0; j < rightNames.length; j++) {
+			if (j == rightKey) continue;
+
+			String name = rightNames[j];
+			if (!used.add(name)) {
+				do {
+					name += RIGHT_SUFFIX;
+				} while (used.contains(name) || original.contains(name));
+				used.add(name);
+			}
+			names[column++] = name;
+		}
+
+		return names;
+	}
+}
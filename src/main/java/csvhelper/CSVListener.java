@@ -0,0 +1,36 @@
+package csvhelper;
+
+/***
+ * Receives measurements of the loads and exports of CSVData objects, and the 
+ * errors that would otherwise be printed. Set it with CSVOptions.setListener 
+ * or CSVData.setListener. The methods are called on the thread that did the 
+ * work, so they must be thread safe if several threads load files.
+ *
+ */
+public interface CSVListener {
+	/***
+	 * Called after a file or stream has been loaded
+	 * 
+	 * @param stats what the load did
+	 */
+	default void loadFinished(CSVStats stats) {
+	}
+
+	/***
+	 * Called after the values have been written out as text
+	 * 
+	 * @param stats what the export did
+	 */
+	default void exportFinished(CSVStats stats) {
+	}
+
+	/***
+	 * Called instead of printing the stack trace when a load or save fails
+	 * 
+	 * @param filepath the file that was being read or written
+	 * @param error what went wrong
+	 */
+	default void failed(String filepath, Exception error) {
+		error.printStackTrace();
+	}
+}
@@ -0,0 +1,232 @@
+package csvhelper;
+
+import java.util.concurrent.ForkJoinPool;
+
+/***
+ * Options for how a CSVData object loads and stores a file
+ *
+ */
+public class CSVOptions {
+	private CSVStorage.Layout layout = CSVStorage.Layout.ROWS;
+	private boolean parallel = false;
+	private boolean memoryMapped = false;
+	private boolean tail = false;
+	private boolean skipMalformedLines = false;
+	private CSVListener listener = null;
+	private CSVTransform transform = null;
+	private String[] columnNames = null;
+	private int[] columnIndexes = null;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	/***
+	 * Sets how the values are laid out in memory. Defaults to ROWS.
+	 * 
+	 * @param layout the layout of the values
+	 * @return these options
+	 */
+	public CSVOptions setLayout(CSVStorage.Layout layout) {
+		this.layout = layout;
+		return this;
+	}
+
+	/***
+	 * Returns how the values are laid out in memory
+	 * 
+	 * @return the layout of the values
+	 */
+	public CSVStorage.Layout getLayout() {
+		return layout;
+	}
+
+	/***
+	 * Sets whether the file is split into chunks that are parsed on several 
+	 * threads. Row order is kept. Defaults to false.
+	 * 
+	 * @param parallel whether to parse the file on several threads
+	 * @return these options
+	 */
+	public CSVOptions setParallel(boolean parallel) {
+		this.parallel = parallel;
+		return this;
+	}
+
+	/***
+	 * Returns whether the file is parsed on several threads
+	 * 
+	 * @return whether the file is parsed on several threads
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/***
+	 * Sets the pool that parses the chunks of a parallel load. Defaults to the common pool.
+	 * 
+	 * @param pool the pool that parses the chunks
+	 * @return these options
+	 */
+	public CSVOptions setPool(ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+
+	/***
+	 * Returns the pool that parses the chunks of a parallel load
+	 * 
+	 * @return the pool that parses the chunks
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/***
+	 * Sets whether the file is memory mapped and parsed straight from the 
+	 * mapped bytes instead of being copied into buffers first. Defaults to false.
+	 * 
+	 * @param memoryMapped whether to memory map the file
+	 * @return these options
+	 */
+	public CSVOptions setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+		return this;
+	}
+
+	/***
+	 * Returns whether the file is memory mapped
+	 * 
+	 * @return whether the file is memory mapped
+	 */
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
+	/***
+	 * Only stores the columns with these names, in this order. The fields of the 
+	 * other columns are skipped without being converted. Defaults to every column.
+	 * 
+	 * @param columnNames the names of the columns to store
+	 * @return these options
+	 */
+	public CSVOptions setColumns(String... columnNames) {
+		this.columnNames = columnNames;
+		this.columnIndexes = null;
+		return this;
+	}
+
+	/***
+	 * Only stores the columns at these indexes, in this order. The indexes are the 
+	 * ones the columns would have if every column was stored. The fields of the 
+	 * other columns are skipped without being converted. Defaults to every column.
+	 * 
+	 * @param columnIndexes the indexes of the columns to store
+	 * @return these options
+	 */
+	public CSVOptions setColumns(int... columnIndexes) {
+		this.columnIndexes = columnIndexes;
+		this.columnNames = null;
+		return this;
+	}
+
+	/***
+	 * Returns the names of the columns to store
+	 * 
+	 * @return the names of the columns to store, or null if they were not chosen by name
+	 */
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+
+	/***
+	 * Returns the indexes of the columns to store
+	 * 
+	 * @return the indexes of the columns to store, or null if they were not chosen by index
+	 */
+	public int[] getColumnIndexes() {
+		return columnIndexes;
+	}
+
+	/***
+	 * Sets whether the file is still growing. A line at the end of the file without 
+	 * a line separator is then left for later, and CSVData.readNewRows reads the 
+	 * rows added since the last read. Defaults to false.
+	 * 
+	 * @param tail whether the file is still growing
+	 * @return these options
+	 */
+	public CSVOptions setTail(boolean tail) {
+		this.tail = tail;
+		return this;
+	}
+
+	/***
+	 * Returns whether the file is still growing
+	 * 
+	 * @return whether the file is still growing
+	 */
+	public boolean isTail() {
+		return tail;
+	}
+
+	/***
+	 * Sets whether lines that can not be parsed are skipped and counted instead of 
+	 * stopping the load. The count is reported to the listener. Defaults to false.
+	 * 
+	 * @param skipMalformedLines whether to skip lines that can not be parsed
+	 * @return these options
+	 */
+	public CSVOptions setSkipMalformedLines(boolean skipMalformedLines) {
+		this.skipMalformedLines = skipMalformedLines;
+		return this;
+	}
+
+	/***
+	 * Returns whether lines that can not be parsed are skipped
+	 * 
+	 * @return whether lines that can not be parsed are skipped
+	 */
+	public boolean isSkipMalformedLines() {
+		return skipMalformedLines;
+	}
+
+	/***
+	 * Sets the listener that receives measurements of every load and export, 
+	 * and the errors that would otherwise be printed. Defaults to none.
+	 * 
+	 * @param listener the listener, or null for none
+	 * @return these options
+	 */
+	public CSVOptions setListener(CSVListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/***
+	 * Returns the listener that receives measurements of every load and export
+	 * 
+	 * @return the listener, or null if there is none
+	 */
+	public CSVListener getListener() {
+		return listener;
+	}
+
+	/***
+	 * Sets the changes made to every row while it is parsed, such as reordering 
+	 * columns, converting time to elapsed time and dropping rows. Defaults to none.
+	 * 
+	 * @param transform the transform, or null for none
+	 * @return these options
+	 */
+	public CSVOptions setTransform(CSVTransform transform) {
+		this.transform = transform;
+		return this;
+	}
+
+	/***
+	 * Returns the changes made to every row while it is parsed
+	 * 
+	 * @return the transform, or null if there is none
+	 */
+	public CSVTransform getTransform() {
+		return transform;
+	}
+}
@@ -0,0 +1,125 @@
+package csvhelper;
+
+import java.nio.ByteBuffer;
+
+/***
+ * Splits CSV lines into fields and converts them to doubles straight from
+ * the bytes, without creating a String for each value
+ *
+ */
+public class CSVParser {
+	// the largest mantissa that a double holds exactly
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	// every power of ten that a double holds exactly
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	/***
+	 * Parses the fields of one line into a row. Fields past the end of the
+	 * mapping are never looked at.
+	 *
+	 * @param buffer the buffer holding the line
+	 * @param start the index of the first byte of the line
+	 * @param end the index after the last byte of the line
+	 * @param fieldColumns the column each field is stored in, or -1 to skip the field
+	 * @param row the row to store the values in
+	 * @throws NumberFormatException if a field is missing or is not a number
+	 */
+	public static void parseRow(ByteBuffer buffer, int start, int end, int[] fieldColumns, double[] row) {
+		int fieldStart = start;
+
+		for (int j = 0; j < fieldColumns.length; j++) {
+			if (fieldStart > end)
+				throw new NumberFormatException("The line has " + j + " fields but " + fieldColumns.length + " are needed");
+
+			int fieldEnd = fieldStart;
+			while (fieldEnd < end && buffer.get(fieldEnd) != ',') fieldEnd++;
+
+			if (fieldColumns[j] >= 0) row[fieldColumns[j]] = parseDouble(buffer, fieldStart, fieldEnd);
+			fieldStart = fieldEnd + 1;
+		}
+	}
+
+	/***
+	 * Returns whether a line only holds whitespace
+	 *
+	 * @param buffer the buffer holding the line
+	 * @param start the index of the first byte of the line
+	 * @param end the index after the last byte of the line
+	 * @return whether the line is blank
+	 */
+	public static boolean isBlank(ByteBuffer buffer, int start, int end) {
+		for (int i = start; i < end; i++)
+			if ((buffer.get(i) & 0xFF) > ' ') return false;
+
+		return true;
+	}
+
+	/***
+	 * Converts one field into a double. A '#' at the end of the field is ignored.
+	 * Plain decimal numbers that fit in a double exactly are converted directly,
+	 * anything else is handed to Double.parseDouble so the result is always the same.
+	 *
+	 * @param buffer the buffer holding the field
+	 * @param start the index of the first byte of the field
+	 * @param end the index after the last byte of the field
+	 * @return the value of the field
+	 * @throws NumberFormatException if the field is not a number
+	 */
+	public static double parseDouble(ByteBuffer buffer, int start, int end) {
+		while (end > start && (buffer.get(end-1) & 0xFF) <= ' ') end--;
+		if (end > start && buffer.get(end-1) == '#') end--;
+
+		while (start < end && (buffer.get(start) & 0xFF) <= ' ') start++;
+		while (end > start && (buffer.get(end-1) & 0xFF) <= ' ') end--;
+
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+			negative = buffer.get(i++) == '-';
+
+		long mantissa = 0;
+		int exponent = 0, numDigits = 0;
+		boolean exact = true, pointSeen = false;
+
+		for (; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b >= '0' && b <= '9') {
+				numDigits++;
+				if (mantissa > (MAX_EXACT_MANTISSA - 9) / 10) exact = false;
+				mantissa = mantissa * 10 + (b - '0');
+				if (pointSeen) exponent--;
+			} else if (b == '.' && !pointSeen) {
+				pointSeen = true;
+			} else {
+				break;
+			}
+		}
+
+		if (i < end && numDigits > 0 && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+				negativeExponent = buffer.get(i++) == '-';
+
+			int exponentValue = 0, exponentDigits = 0;
+			for (; i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++, exponentDigits++)
+				exponentValue = exponentValue * 10 + (buffer.get(i) - '0');
+
+			if (exponentDigits == 0 || exponentDigits > 4) exact = false;
+			exponent += negativeExponent ? -exponentValue : exponentValue;
+		}
+
+		if (i != end || numDigits == 0 || !exact || exponent < -22 || exponent > 22)
+			return Double.parseDouble(CSVReader.decode(buffer, start, end));
+
+		// both the mantissa and the power of ten are exact, so one multiply or divide rounds correctly
+		double value = (double) mantissa;
+		if (exponent < 0) value /= POWERS_OF_TEN[-exponent];
+		else value *= POWERS_OF_TEN[exponent];
+
+		return negative ? -value : value;
+	}
+}
@@ -0,0 +1,943 @@
+package csvhelper;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/***
+ * Streams a numerical CSV file through one large reusable buffer and parses
+ * each row as soon as its line has been read, so the whole file is never
+ * held in memory as text
+ *
+ */
+public class CSVReader {
+	public static final int BUFFER_SIZE = 1 << 20;
+	public static final int CHUNK_SIZE = 1 << 22;
+	public static final int MAP_WINDOW_SIZE = 1 << 30;
+	public static final int INFLATE_BUFFER_SIZE = 1 << 16;
+
+	private int numLinesToIgnore;
+	private boolean hasHeader;
+	private CSVOptions options;
+	private int[] fieldColumns;
+	private int numColumns;
+	private int timeColumn;
+
+	private String[] columnNames;
+	private CSVStorage storage;
+	private double[] row;
+	private int lineIndex;
+	private long position;
+	private byte[] buffer;
+	private boolean mapChunks;
+	private RowVisitor visitor;
+	private int numVisitedRows;
+	private CSVTransform.Plan plan;
+	private int[][] droppedRows;
+	private int[] numChunkMalformedLines;
+	private int[] numChunkLines;
+	private int[] firstChunkLines;
+
+	// measurements of the current load
+	private long loadStart;
+	private long numRowsBefore;
+	private long numBytesRead;
+	private long ioNanos;
+	private long numMalformedLines;
+	private int peakBufferSize;
+
+	/***
+	 * Creates a reader that skips lines at the top of the file. Only the columns 
+	 * selected in the options are stored, and the fields of the other columns are 
+	 * skipped without being converted.
+	 *
+	 * @param numLinesToIgnore number of lines at the top to ignore
+	 * @param columnNames the names of the columns, or null if the line after the 
+	 * ignored lines holds the column names
+	 * @param sourceFields the field of a line each column comes from, or null if 
+	 * the columns are the first fields in order
+	 * @param options how the file is loaded and stored
+	 */
+	public CSVReader(int numLinesToIgnore, String[] columnNames, int[] sourceFields, CSVOptions options) {
+		this.numLinesToIgnore = numLinesToIgnore;
+		this.hasHeader = columnNames == null;
+		this.options = options;
+		if (columnNames != null) selectColumns(columnNames, sourceFields);
+	}
+
+	/***
+	 * Reads every line of a file the way the options ask for. Compressed files 
+	 * are always decompressed as a stream, so the parallel and memory mapped 
+	 * options do not apply to them.
+	 *
+	 * @param filepath the path to the file
+	 * @throws IOException if the file can not be read, or is compressed and the options ask to tail it
+	 */
+	public void readFile(String filepath) throws IOException {
+		CSVEvents.Load event = beginLoad();
+
+		if (isCompressed(filepath)) {
+			if (options.isTail()) throw new IOException(filepath + " is compressed, so it can not be tailed");
+
+			try (InputStream file = new FileInputStream(filepath); InputStream in = decompress(file)) {
+				readStream(in);
+			}
+		} else if (options.isParallel()) {
+			try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+				mapChunks = options.isMemoryMapped();
+				readParallel(channel, options.getPool());
+			}
+		} else if (options.isMemoryMapped()) {
+			try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+				readMapped(channel);
+			}
+		} else {
+			try (InputStream in = new FileInputStream(filepath)) {
+				readStream(in);
+			}
+		}
+
+		finishLoad(event, filepath);
+	}
+
+	/***
+	 * Reads every line of a file and hands each row to a visitor instead of storing 
+	 * it. The rows are always read in order on the calling thread, so the parallel 
+	 * option is ignored.
+	 *
+	 * @param filepath the path to the file
+	 * @param visitor the visitor that receives the rows
+	 * @return the number of rows visited
+	 * @throws IOException if the file can not be read
+	 */
+	public int scan(String filepath, RowVisitor visitor) throws IOException {
+		this.visitor = visitor;
+		numVisitedRows = 0;
+		CSVEvents.Load event = beginLoad();
+
+		if (options.isMemoryMapped() && !isCompressed(filepath)) {
+			try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+				readMapped(channel);
+			}
+		} else {
+			try (InputStream file = new FileInputStream(filepath); InputStream in = decompress(file)) {
+				readStream(in);
+			}
+		}
+
+		finishLoad(event, filepath);
+		return numVisitedRows;
+	}
+
+	/***
+	 * Reads every line from the stream, parsing the rows as they arrive. Gzip and 
+	 * zlib data is decompressed on the way. The stream is read to the end but not closed.
+	 *
+	 * @param in the stream to read
+	 * @throws IOException if the stream can not be read
+	 */
+	public void read(InputStream in) throws IOException {
+		CSVEvents.Load event = beginLoad();
+		readStream(decompress(in));
+		finishLoad(event, null);
+	}
+
+	/***
+	 * Reads every line from the stream without measuring the load. The stream 
+	 * must already be decompressed, which the callers do so it happens exactly once.
+	 *
+	 * @param in the stream to read
+	 * @throws IOException if the stream can not be read
+	 */
+	private void readStream(InputStream in) throws IOException {
+		if (fieldColumns != null) createStorage();
+		lineIndex = 0;
+		position = 0;
+
+		try {
+			readLines(in);
+		} finally {
+			finishRead();
+		}
+	}
+
+	/***
+	 * Reads every line from the channel, parsing the rows as they arrive. Gzip and 
+	 * zlib data is decompressed on the way. The channel is read to the end but not closed.
+	 *
+	 * @param channel the channel to read
+	 * @throws IOException if the channel can not be read
+	 */
+	public void read(ReadableByteChannel channel) throws IOException {
+		read(Channels.newInputStream(channel));
+	}
+
+	/***
+	 * Returns whether a file starts like gzip or zlib data
+	 *
+	 * @param filepath the path to the file
+	 * @return whether the file is compressed
+	 * @throws IOException if the file can not be read
+	 */
+	public static boolean isCompressed(String filepath) throws IOException {
+		try (InputStream in = new FileInputStream(filepath)) {
+			byte[] header = new byte[2];
+			return in.readNBytes(header, 0, 2) == 2 && isCompressed(header);
+		}
+	}
+
+	/***
+	 * Returns whether the first two bytes of some data are a gzip or zlib header. 
+	 * Only the zlib headers for the default window size at compression levels 0-1, 
+	 * 6 and 7-9 are recognised, because the one for levels 2-5 is the text "x^".
+	 *
+	 * @param header the first two bytes
+	 * @return whether the data is compressed
+	 */
+	private static boolean isCompressed(byte[] header) {
+		int magic = (header[0] & 0xFF) | (header[1] & 0xFF) << 8;
+		if (magic == GZIPInputStream.GZIP_MAGIC) return true;
+
+		return header[0] == 0x78 && (header[1] == 0x01 || header[1] == (byte) 0x9C || header[1] == (byte) 0xDA);
+	}
+
+	/***
+	 * Wraps a stream so gzip or zlib data is decompressed as it is read. Other 
+	 * data is passed through unchanged.
+	 *
+	 * @param in the stream to read
+	 * @return a stream of the decompressed bytes
+	 * @throws IOException if the stream can not be read
+	 */
+	public static InputStream decompress(InputStream in) throws IOException {
+		PushbackInputStream pushback = new PushbackInputStream(in, 2);
+		byte[] header = new byte[2];
+		int numRead = pushback.readNBytes(header, 0, 2);
+		pushback.unread(header, 0, numRead);
+
+		if (numRead < 2 || !isCompressed(header)) return pushback;
+		if (header[0] != 0x78) return new GZIPInputStream(pushback, INFLATE_BUFFER_SIZE);
+
+		return new InflaterInputStream(pushback, new Inflater(), INFLATE_BUFFER_SIZE) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				inf.end();
+			}
+		};
+	}
+
+	/***
+	 * Reads the lines that were added to the end of a file since it was last read. 
+	 * Only lines that end with a line separator are read, so a line that is still 
+	 * being written is picked up the next time.
+	 *
+	 * @param filepath the path to the file
+	 * @return the number of rows that were added
+	 * @throws IOException if the file can not be read or became shorter
+	 */
+	public int readAppended(String filepath) throws IOException {
+		int oldNumRows = storage == null ? 0 : storage.getNumRows();
+		CSVEvents.Load event = beginLoad();
+
+		try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+			if (channel.size() < position) 
+				throw new IOException(filepath + " is shorter than the part that was already read");
+
+			channel.position(position);
+			readLines(Channels.newInputStream(channel));
+		}
+
+		finishLoad(event, filepath);
+		return (storage == null ? 0 : storage.getNumRows()) - oldNumRows;
+	}
+
+	/***
+	 * Reads lines from the stream, starting where the last read stopped
+	 *
+	 * @param in the stream to read
+	 * @throws IOException if the stream can not be read
+	 */
+	private void readLines(InputStream in) throws IOException {
+		if (buffer == null) buffer = new byte[BUFFER_SIZE];
+		ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+		int filled = 0;
+
+		while (true) {
+			if (filled == buffer.length) {
+				// a single line is longer than the buffer
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				wrapped = ByteBuffer.wrap(buffer);
+			}
+			peakBufferSize = Math.max(peakBufferSize, buffer.length);
+
+			long readStart = System.nanoTime();
+			int read = in.read(buffer, filled, buffer.length - filled);
+			ioNanos += System.nanoTime() - readStart;
+			if (read == -1) break;
+			numBytesRead += read;
+
+			int limit = filled + read, lineStart = 0;
+			for (int i = filled; i < limit; i++) {
+				if (buffer[i] == '\n') {
+					handleLine(wrapped, lineStart, i);
+					// advance line by line, so a line that throws is where the next tail read starts
+					position += i + 1 - lineStart;
+					lineStart = i + 1;
+				}
+			}
+
+			filled = limit - lineStart;
+			System.arraycopy(buffer, lineStart, buffer, 0, filled);
+		}
+
+		// last line without a line separator, unless it may still be being written
+		if (filled > 0 && !options.isTail()) {
+			handleLine(wrapped, 0, filled);
+			position += filled;
+		}
+	}
+
+	/***
+	 * Releases what a read no longer needs. When tailing, the spare room in the 
+	 * storage and the read buffer are kept for the rows still to come.
+	 */
+	private void finishRead() {
+		if (options.isTail()) return;
+
+		if (storage != null) storage.trimToSize();
+		buffer = null;
+	}
+
+	/***
+	 * Reads every line of a file by memory mapping it and parsing the mapped 
+	 * bytes directly. Files larger than MAP_WINDOW_SIZE are mapped one window 
+	 * at a time, each window starting at the first line the last one did not finish.
+	 *
+	 * @param channel the file to read
+	 * @throws IOException if the file can not be mapped
+	 */
+	public void readMapped(FileChannel channel) throws IOException {
+		if (fieldColumns != null) createStorage();
+		lineIndex = 0;
+		position = 0;
+
+		long size = channel.size(), windowStart = 0;
+		try {
+			while (windowStart < size) {
+				int windowSize = (int) Math.min(MAP_WINDOW_SIZE, size - windowStart);
+				long mapStart = System.nanoTime();
+				ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+				ioNanos += System.nanoTime() - mapStart;
+				peakBufferSize = Math.max(peakBufferSize, windowSize);
+
+				int lineStart = 0;
+				for (int i = 0; i < windowSize; i++) {
+					if (window.get(i) == '\n') {
+						handleLine(window, lineStart, i);
+						lineStart = i + 1;
+					}
+				}
+
+				position = windowStart + lineStart;
+				if (windowStart + windowSize == size) {
+					// last line without a line separator, unless it may still be being written
+					if (lineStart < windowSize && !options.isTail()) {
+						handleLine(window, lineStart, windowSize);
+						position = size;
+					}
+					break;
+				}
+
+				if (lineStart == 0)
+					throw new IOException("A line is longer than " + MAP_WINDOW_SIZE + " bytes");
+				windowStart += lineStart;
+			}
+			numBytesRead += position;
+		} finally {
+			finishRead();
+		}
+	}
+
+	/***
+	 * Reads every line of a file on a ForkJoinPool. The lines at the top are read 
+	 * first, then the rest of the file is split at line breaks into chunks. The rows 
+	 * in every chunk are counted so each chunk can then be parsed straight into its 
+	 * place in the storage, keeping the rows in order.
+	 *
+	 * @param channel the file to read
+	 * @param pool the pool that parses the chunks
+	 * @throws IOException if the file can not be read
+	 */
+	public void readParallel(FileChannel channel, ForkJoinPool pool) throws IOException {
+		if (fieldColumns != null) createStorage();
+		lineIndex = 0;
+
+		long splitStart = System.nanoTime();
+		long dataStart = readTopLines(channel);
+		position = dataStart;
+		numBytesRead += dataStart;
+		if (fieldColumns == null) return;
+
+		long dataEnd = options.isTail() ? Math.max(dataStart, lastLineEnd(channel)) : channel.size();
+		long[] bounds = splitIntoChunks(channel, dataStart, dataEnd);
+		position = dataEnd;
+		numBytesRead += dataEnd - dataStart;
+		ioNanos += System.nanoTime() - splitStart;
+
+		int numChunks = bounds.length - 1;
+		for (int chunk = 0; chunk < numChunks; chunk++)
+			peakBufferSize = (int) Math.max(peakBufferSize, bounds[chunk+1] - bounds[chunk]);
+
+		int[] rowCounts = new int[numChunks];
+		numChunkLines = new int[numChunks];
+		runInParallel(pool, numChunks, 
+				chunk -> rowCounts[chunk] = parseChunk(channel, bounds[chunk], bounds[chunk+1], -1, chunk));
+
+		// the line numbers of each chunk are known from the counts, so errors can name the line
+		firstChunkLines = new int[numChunks];
+		int firstLine = lineIndex;
+		for (int chunk = 0; chunk < numChunks; chunk++) {
+			firstChunkLines[chunk] = firstLine;
+			firstLine += numChunkLines[chunk];
+		}
+
+		// the origin is found in order before the rows are parsed, so the chunks never race to set it
+		if (plan != null && plan.needsFirstRow() && Arrays.stream(rowCounts).sum() > 0) {
+			boolean found = false;
+			for (int chunk = 0; chunk < numChunks && !found; chunk++)
+				found = findFirstRow(channel, bounds[chunk], bounds[chunk+1]);
+
+			if (!found) throw new IOException("No row could be parsed to measure the elapsed time from");
+		}
+
+		int[] firstRows = new int[numChunks];
+		int firstRow = storage.getNumRows();
+		for (int chunk = 0; chunk < numChunks; chunk++) {
+			firstRows[chunk] = firstRow;
+			firstRow += rowCounts[chunk];
+		}
+
+		storage.reserveRows(firstRow - storage.getNumRows());
+		droppedRows = new int[numChunks][];
+		numChunkMalformedLines = new int[numChunks];
+		runInParallel(pool, numChunks, 
+				chunk -> parseChunk(channel, bounds[chunk], bounds[chunk+1], firstRows[chunk], chunk));
+		lineIndex = firstLine;
+
+		// rows were reserved for the lines that could not be parsed or were filtered out too
+		int numDropped = 0;
+		for (int chunk = 0; chunk < numChunks; chunk++) {
+			numDropped += droppedRows[chunk].length;
+			numMalformedLines += numChunkMalformedLines[chunk];
+		}
+		if (numDropped > 0) {
+			int[] removed = new int[numDropped];
+			int next = 0;
+			for (int[] rows : droppedRows) {
+				System.arraycopy(rows, 0, removed, next, rows.length);
+				next += rows.length;
+			}
+
+			storage.removeRows(removed);
+			if (!options.isTail()) storage.trimToSize();
+		}
+		droppedRows = null;
+		numChunkMalformedLines = null;
+		numChunkLines = null;
+		firstChunkLines = null;
+	}
+
+	/***
+	 * Reads the ignored lines and the header line at the top of a file
+	 *
+	 * @param channel the file to read
+	 * @return the position in the file where the data starts
+	 * @throws IOException if the file can not be read
+	 */
+	private long readTopLines(FileChannel channel) throws IOException {
+		int numTopLines = numLinesToIgnore + (hasHeader ? 1 : 0);
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		long bufferStart = 0;
+
+		while (lineIndex < numTopLines) {
+			if (!buffer.hasRemaining()) {
+				// a single line is longer than the buffer
+				ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+				buffer.flip();
+				larger.put(buffer);
+				buffer = larger;
+			}
+
+			int scanFrom = buffer.position();
+			int read = channel.read(buffer, bufferStart + scanFrom);
+			if (read == -1) {
+				// last line without a line separator, unless it may still be being written
+				if (scanFrom == 0 || options.isTail()) return bufferStart;
+				handleLine(buffer, 0, scanFrom);
+				return bufferStart + scanFrom;
+			}
+
+			int limit = buffer.position(), lineStart = 0;
+			for (int i = scanFrom; i < limit && lineIndex < numTopLines; i++) {
+				if (buffer.get(i) == '\n') {
+					handleLine(buffer, lineStart, i);
+					lineStart = i + 1;
+				}
+			}
+
+			if (lineIndex == numTopLines) return bufferStart + lineStart;
+
+			buffer.flip().position(lineStart);
+			buffer.compact();
+			bufferStart += lineStart;
+		}
+
+		return 0;
+	}
+
+	/***
+	 * Splits the rest of a file into chunks that start right after a line break
+	 *
+	 * @param channel the file to split
+	 * @param dataStart the position in the file where the data starts
+	 * @param size the position in the file where the data ends
+	 * @return the start of every chunk followed by the end of the data
+	 * @throws IOException if the file can not be read
+	 */
+	private static long[] splitIntoChunks(FileChannel channel, long dataStart, long size) throws IOException {
+		List<Long> bounds = new ArrayList<>();
+		bounds.add(dataStart);
+
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 13);
+		long position = dataStart + CHUNK_SIZE;
+		while (position < size) {
+			// the chunk ends after the first line break at or after the byte before position
+			long searchStart = position - 1, lineBreak = -1;
+			while (lineBreak < 0) {
+				buffer.clear();
+				if (channel.read(buffer, searchStart) <= 0) break;
+
+				for (int i = 0; i < buffer.position(); i++) {
+					if (buffer.get(i) == '\n') {
+						lineBreak = searchStart + i;
+						break;
+					}
+				}
+				searchStart += buffer.position();
+			}
+
+			if (lineBreak < 0 || lineBreak + 1 >= size) break;
+			bounds.add(lineBreak + 1);
+			position = lineBreak + 1 + CHUNK_SIZE;
+		}
+
+		bounds.add(size);
+
+		long[] output = new long[bounds.size()];
+		for (int i = 0; i < output.length; i++)
+			output[i] = bounds.get(i);
+		return output;
+	}
+
+	/***
+	 * Finds the end of the last line in a file that ends with a line separator
+	 *
+	 * @param channel the file to search
+	 * @return the position right after the last line separator, or 0 if there is none
+	 * @throws IOException if the file can not be read
+	 */
+	private static long lastLineEnd(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 13);
+		long end = channel.size();
+
+		while (end > 0) {
+			long start = Math.max(0, end - buffer.capacity());
+			buffer.clear().limit((int) (end - start));
+			channel.read(buffer, start);
+
+			for (int i = buffer.position() - 1; i >= 0; i--)
+				if (buffer.get(i) == '\n') return start + i + 1;
+			end = start;
+		}
+
+		return 0;
+	}
+
+	/***
+	 * Reads or maps one chunk of a file and either counts the rows and lines in it 
+	 * or parses the rows
+	 *
+	 * @param channel the file to read
+	 * @param start the position of the first byte of the chunk
+	 * @param end the position after the last byte of the chunk
+	 * @param firstRow the row the first row of the chunk is stored in, or -1 to only count the rows
+	 * @param chunk the index of the chunk
+	 * @return the number of rows in the chunk
+	 * @throws IOException if the file can not be read
+	 */
+	private int parseChunk(FileChannel channel, long start, long end, int firstRow, int chunk) throws IOException {
+		ByteBuffer buffer = readChunk(channel, start, end);
+		double[] chunkRow = firstRow < 0 ? null : new double[numColumns];
+		int[] dropped = new int[0];
+		int numChunkRows = 0, numDropped = 0, numLines = 0, lineStart = 0, limit = buffer.limit();
+
+		for (int i = 0; i <= limit; i++) {
+			if (i == limit && i == lineStart) break;
+
+			if (i == limit || buffer.get(i) == '\n') {
+				int line = numLines++;
+				if (!CSVParser.isBlank(buffer, lineStart, i)) {
+					if (firstRow >= 0) {
+						boolean kept;
+						try {
+							CSVParser.parseRow(buffer, lineStart, i, fieldColumns, chunkRow);
+							kept = plan == null || plan.apply(chunkRow);
+						} catch (NumberFormatException e) {
+							if (!options.isSkipMalformedLines()) 
+								throw new NumberFormatException("Line " + (firstChunkLines[chunk] + line + 1) + ": " + e.getMessage());
+							numChunkMalformedLines[chunk]++;
+							kept = false;
+						}
+
+						if (kept) {
+							storage.copyRow(firstRow + numChunkRows, chunkRow);
+						} else {
+							if (numDropped == dropped.length) dropped = Arrays.copyOf(dropped, Math.max(16, numDropped * 2));
+							dropped[numDropped++] = firstRow + numChunkRows;
+						}
+					}
+					numChunkRows++;
+				}
+				lineStart = i + 1;
+			}
+		}
+
+		if (firstRow >= 0) droppedRows[chunk] = Arrays.copyOf(dropped, numDropped);
+		else numChunkLines[chunk] = numLines;
+		return numChunkRows;
+	}
+
+	/***
+	 * Looks for the first row of a chunk that can be parsed and makes it the one 
+	 * the elapsed time is measured from
+	 *
+	 * @param channel the file to read
+	 * @param start the position of the first byte of the chunk
+	 * @param end the position after the last byte of the chunk
+	 * @return whether a row was found
+	 * @throws IOException if the file can not be read
+	 */
+	private boolean findFirstRow(FileChannel channel, long start, long end) throws IOException {
+		ByteBuffer buffer = readChunk(channel, start, end);
+		double[] chunkRow = new double[numColumns];
+		int lineStart = 0, limit = buffer.limit();
+
+		for (int i = 0; i <= limit; i++) {
+			if (i == limit || buffer.get(i) == '\n') {
+				if (!CSVParser.isBlank(buffer, lineStart, i)) {
+					try {
+						CSVParser.parseRow(buffer, lineStart, i, fieldColumns, chunkRow);
+						plan.setFirstRow(chunkRow);
+						return true;
+					} catch (NumberFormatException e) {
+						// the parsing pass reports the line
+					}
+				}
+				lineStart = i + 1;
+			}
+		}
+
+		return false;
+	}
+
+	/***
+	 * Reads or maps one chunk of a file
+	 *
+	 * @param channel the file to read
+	 * @param start the position of the first byte of the chunk
+	 * @param end the position after the last byte of the chunk
+	 * @return the bytes of the chunk
+	 * @throws IOException if the file can not be read
+	 */
+	private ByteBuffer readChunk(FileChannel channel, long start, long end) throws IOException {
+		if (mapChunks) return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, start + buffer.position()) == -1) break;
+		buffer.flip();
+		return buffer;
+	}
+
+	/***
+	 * A piece of work done for one chunk of a file
+	 */
+	private interface ChunkTask {
+		void run(int chunk) throws IOException;
+	}
+
+	/***
+	 * Runs a task for every chunk on a ForkJoinPool and waits for all of them to finish
+	 *
+	 * @param pool the pool to run the tasks on
+	 * @param numChunks the number of chunks
+	 * @param task the task to run for each chunk
+	 * @throws IOException if a task could not read the file
+	 */
+	private static void runInParallel(ForkJoinPool pool, int numChunks, ChunkTask task) throws IOException {
+		try {
+			pool.submit(() -> IntStream.range(0, numChunks).parallel().forEach(chunk -> {
+				try {
+					task.run(chunk);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while parsing the file");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			// a task that failed on another thread is rethrown as a copy without the message
+			while (cause.getCause() != null && cause.getCause().getClass() == cause.getClass())
+				cause = cause.getCause();
+			if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+	/***
+	 * Handles one line of the file
+	 *
+	 * @param buffer the buffer holding the line
+	 * @param start the index of the first byte of the line
+	 * @param end the index after the last byte of the line, not including the line separator
+	 */
+	private void handleLine(ByteBuffer buffer, int start, int end) {
+		if (end > start && buffer.get(end-1) == '\r') end--;
+
+		int index = lineIndex++;
+		if (index < numLinesToIgnore) return;
+
+		if (hasHeader && index == numLinesToIgnore) {
+			selectColumns(decode(buffer, start, end).split(","), null);
+			createStorage();
+			return;
+		}
+
+		if (CSVParser.isBlank(buffer, start, end)) return;
+
+		try {
+			CSVParser.parseRow(buffer, start, end, fieldColumns, row);
+		} catch (NumberFormatException e) {
+			if (!options.isSkipMalformedLines()) {
+				// the line is read again by the next tail read, so it must not be counted twice
+				lineIndex = index;
+				throw new NumberFormatException("Line " + (index + 1) + ": " + e.getMessage());
+			}
+
+			numMalformedLines++;
+			return;
+		}
+		if (plan != null && !plan.apply(row)) return;
+		if (visitor != null) visitor.visitRow(numVisitedRows++, row);
+		else storage.addRow(row);
+	}
+
+	/***
+	 * Starts measuring a load
+	 *
+	 * @return the flight recorder event for the load
+	 */
+	private CSVEvents.Load beginLoad() {
+		loadStart = System.nanoTime();
+		numRowsBefore = getNumRowsRead();
+		numBytesRead = 0;
+		ioNanos = 0;
+		numMalformedLines = 0;
+		peakBufferSize = 0;
+
+		CSVEvents.Load event = new CSVEvents.Load();
+		event.begin();
+		return event;
+	}
+
+	/***
+	 * Finishes measuring a load and reports it
+	 *
+	 * @param event the flight recorder event for the load
+	 * @param filepath the file that was read, or null for a stream
+	 */
+	private void finishLoad(CSVEvents.Load event, String filepath) {
+		CSVStats stats = new CSVStats(CSVStats.Operation.LOAD, filepath, numBytesRead, getNumRowsRead() - numRowsBefore, 
+				numMalformedLines, System.nanoTime() - loadStart, ioNanos, peakBufferSize);
+
+		CSVEvents.finish(event, stats, options.getListener());
+	}
+
+	/***
+	 * Returns the number of rows stored or visited so far
+	 *
+	 * @return the number of rows
+	 */
+	private long getNumRowsRead() {
+		if (visitor != null) return numVisitedRows;
+
+		return storage == null ? 0 : storage.getNumRows();
+	}
+
+	/***
+	 * Works out which fields of a line are stored, and in which column, from the 
+	 * columns selected in the options
+	 *
+	 * @param names the names of all the columns in the file
+	 * @param sourceFields the field of a line each column comes from, or null if 
+	 * the columns are the first fields in order
+	 * @throws IllegalArgumentException if a selected column does not exist or is selected twice
+	 */
+	private void selectColumns(String[] names, int[] sourceFields) {
+		int[] selected = options.getColumnIndexes();
+		if (options.getColumnNames() != null) {
+			selected = new int[options.getColumnNames().length];
+			for (int k = 0; k < selected.length; k++) {
+				selected[k] = Arrays.asList(names).indexOf(options.getColumnNames()[k]);
+				if (selected[k] < 0) 
+					throw new IllegalArgumentException("The column name " + options.getColumnNames()[k] 
+							+ " does not exist as a column title");
+			}
+		}
+		if (selected == null) {
+			selected = new int[names.length];
+			for (int k = 0; k < selected.length; k++)
+				selected[k] = k;
+		}
+
+		int numFields = 0;
+		for (int column : selected) {
+			if (column < 0 || column >= names.length) 
+				throw new IllegalArgumentException("There is no column " + column);
+			numFields = Math.max(numFields, (sourceFields == null ? column : sourceFields[column]) + 1);
+		}
+
+		this.columnNames = new String[selected.length];
+		this.fieldColumns = new int[numFields];
+		Arrays.fill(fieldColumns, -1);
+
+		for (int k = 0; k < selected.length; k++) {
+			int field = sourceFields == null ? selected[k] : sourceFields[selected[k]];
+			if (fieldColumns[field] >= 0) 
+				throw new IllegalArgumentException("The column " + names[selected[k]] + " is selected twice");
+
+			fieldColumns[field] = k;
+			columnNames[k] = names[selected[k]];
+		}
+
+		this.numColumns = selected.length;
+		this.row = new double[numColumns];
+
+		if (options.getTransform() != null) applyTransform(options.getTransform());
+
+		// the first field holds the time unless the transform names an elapsed time column
+		if (plan != null && plan.getElapsedColumns().length > 0) timeColumn = plan.getElapsedColumns()[0];
+		else timeColumn = fieldColumns.length > 0 && fieldColumns[0] >= 0 ? fieldColumns[0] : 0;
+	}
+
+	/***
+	 * Binds a transform to the selected columns and moves the columns it reorders, 
+	 * so the fields are parsed straight into their new places
+	 *
+	 * @param transform the transform to apply to every row
+	 * @throws IllegalArgumentException if the transform names a column that is not selected
+	 */
+	private void applyTransform(CSVTransform transform) {
+		this.plan = transform.bind(columnNames);
+
+		int[] sourceColumns = plan.getSourceColumns();
+		int[] newColumns = new int[numColumns];
+		for (int k = 0; k < numColumns; k++)
+			newColumns[sourceColumns[k]] = k;
+
+		for (int field = 0; field < fieldColumns.length; field++)
+			if (fieldColumns[field] >= 0) fieldColumns[field] = newColumns[fieldColumns[field]];
+
+		this.columnNames = plan.getColumnNames().clone();
+	}
+
+	/***
+	 * Creates empty storage for the selected columns, or tells the visitor 
+	 * which columns it will receive
+	 */
+	private void createStorage() {
+		if (visitor != null) {
+			visitor.start(columnNames.clone());
+			return;
+		}
+
+		this.storage = CSVStorage.create(options.getLayout(), numColumns, timeColumn);
+	}
+
+	/***
+	 * Converts part of a buffer into a String
+	 *
+	 * @param buffer the buffer holding the text
+	 * @param start the index of the first byte
+	 * @param end the index after the last byte
+	 * @return the String version of those bytes
+	 */
+	public static String decode(ByteBuffer buffer, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = buffer.get(start + i);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/***
+	 * Returns the names of the columns that are stored
+	 *
+	 * @return the column names, or null if the header line was never read
+	 */
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+
+	/***
+	 * Returns the column that holds the time: the first elapsed time column of 
+	 * the transform, or else the column read from the first field
+	 *
+	 * @return the index of the time column, or 0 if the time was not selected
+	 */
+	public int getTimeColumn() {
+		return timeColumn;
+	}
+
+	/***
+	 * Returns the storage holding the rows that were read
+	 *
+	 * @return the storage holding the rows, or null if no columns were known
+	 */
+	public CSVStorage getStorage() {
+		return storage;
+	}
+}
@@ -0,0 +1,298 @@
+package csvhelper;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/***
+ * Shrinks sensor data for plotting and analysis, either by putting the rows
+ * into buckets of a fixed time interval or by picking the rows that keep the
+ * shape of a line (Largest-Triangle-Three-Buckets). The work is split over the
+ * columns and over chunks of rows and run on the common ForkJoinPool, and the
+ * result is stored column by column.
+ *
+ */
+public class CSVResampler {
+	// data smaller than this is not worth splitting between threads
+	private static final int MIN_PARALLEL_VALUES = 1 << 16;
+	// the number of rows each task looks at
+	private static final int CHUNK_ROWS = 1 << 16;
+
+	/***
+	 * How the values of a bucket become one value
+	 */
+	public enum Aggregation {
+		/***
+		 * The mean of the values
+		 */
+		MEAN,
+		/***
+		 * The smallest value, skipping NaN
+		 */
+		MIN,
+		/***
+		 * The largest value, skipping NaN
+		 */
+		MAX,
+		/***
+		 * The value of the last row
+		 */
+		LAST
+	}
+
+	/***
+	 * Puts the rows into buckets of a fixed time interval, starting at the time
+	 * of the first row, and turns each bucket into one row. The time of a row is
+	 * the start of its bucket. Buckets without rows are left out.
+	 *
+	 * @param storage the values, with the time column sorted
+	 * @param timeColumn the index of the time column
+	 * @param interval the length of each bucket
+	 * @param aggregation how the values of a bucket are combined
+	 * @return the buckets, one per row
+	 */
+	static CSVStorage resample(CSVStorage storage, int timeColumn, double interval, Aggregation aggregation) {
+		if (!(interval > 0) || Double.isInfinite(interval))
+			throw new IllegalArgumentException("The interval must be positive but is " + interval);
+
+		int numRows = storage.getNumRows(), numColumns = storage.getNumColumns();
+		boolean parallel = (long) numRows * numColumns >= MIN_PARALLEL_VALUES;
+		if (numRows == 0) return new ColumnStorage(new double[numColumns][0], 0);
+
+		DoubleBuffer[] views = new DoubleBuffer[numColumns];
+		forEach(numColumns, parallel, j -> views[j] = storage.getColumnView(j));
+
+		DoubleBuffer time = views[timeColumn];
+		double startTime = time.get(0);
+		int[] bucketStarts = findBucketStarts(time, numRows, startTime, interval, parallel);
+		int numBuckets = bucketStarts.length - 1;
+
+		// each task combines a range of buckets of one column
+		int numChunks = Math.max(1, Math.min(numBuckets, numRows / CHUNK_ROWS));
+		double[][] columns = new double[numColumns][numBuckets];
+
+		forEach(numColumns * numChunks, parallel, task -> {
+			int j = task / numChunks, chunk = task % numChunks;
+			int first = (int) ((long) numBuckets * chunk / numChunks);
+			int last = (int) ((long) numBuckets * (chunk + 1) / numChunks);
+
+			if (j == timeColumn) {
+				for (int b = first; b < last; b++)
+					columns[j][b] = startTime + bucketOf(time.get(bucketStarts[b]), startTime, interval) * interval;
+			} else {
+				aggregate(views[j], bucketStarts, first, last, aggregation, columns[j]);
+			}
+		});
+
+		return new ColumnStorage(columns, numBuckets);
+	}
+
+	/***
+	 * Picks the rows that best keep the shape of one column plotted against time,
+	 * using Largest-Triangle-Three-Buckets. The first and last rows are always kept.
+	 * Each pick depends on the one before, so the picking runs on one thread and
+	 * copying the picked rows is split over the columns.
+	 *
+	 * @param storage the values, with the time column sorted
+	 * @param timeColumn the index of the time column
+	 * @param valueColumn the index of the column whose shape is kept
+	 * @param numPoints the number of rows to keep, at least 3
+	 * @return the picked rows
+	 */
+	static CSVStorage downsample(CSVStorage storage, int timeColumn, int valueColumn, int numPoints) {
+		if (numPoints < 3) throw new IllegalArgumentException("At least 3 points are needed but " + numPoints + " were asked for");
+
+		int numRows = storage.getNumRows(), numColumns = storage.getNumColumns();
+		int[] rows = pickRows(storage.getColumnView(timeColumn), storage.getColumnView(valueColumn), numRows, numPoints);
+
+		double[][] columns = new double[numColumns][rows.length];
+		forEach(numColumns, (long) rows.length * numColumns >= MIN_PARALLEL_VALUES, j -> {
+			for (int k = 0; k < rows.length; k++)
+				columns[j][k] = storage.get(rows[k], j);
+		});
+
+		return new ColumnStorage(columns, rows.length);
+	}
+
+	/***
+	 * Finds the first row of every bucket that has rows. Chunks of rows are
+	 * searched at the same time and their results joined in order.
+	 *
+	 * @param time the time column
+	 * @param numRows the number of rows
+	 * @param startTime the start of the first bucket
+	 * @param interval the length of each bucket
+	 * @param parallel whether to search the chunks on several threads
+	 * @return the first row of each bucket, followed by the number of rows
+	 */
+	private static int[] findBucketStarts(DoubleBuffer time, int numRows, double startTime, double interval,
+			boolean parallel) {
+		int numChunks = (numRows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+		int[][] chunkStarts = new int[numChunks][];
+
+		forEach(numChunks, parallel, chunk -> {
+			int start = chunk * CHUNK_ROWS, end = Math.min(numRows, start + CHUNK_ROWS);
+			int[] starts = new int[16];
+			int count = 0;
+
+			long previous = start == 0 ? -1 : bucketOf(time.get(start - 1), startTime, interval);
+			for (int i = start; i < end; i++) {
+				long bucket = bucketOf(time.get(i), startTime, interval);
+				if (bucket != previous) {
+					if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+					starts[count++] = i;
+					previous = bucket;
+				}
+			}
+
+			chunkStarts[chunk] = Arrays.copyOf(starts, count);
+		});
+
+		int numBuckets = 0;
+		for (int[] starts : chunkStarts)
+			numBuckets += starts.length;
+
+		int[] bucketStarts = new int[numBuckets + 1];
+		int b = 0;
+		for (int[] starts : chunkStarts) {
+			System.arraycopy(starts, 0, bucketStarts, b, starts.length);
+			b += starts.length;
+		}
+		bucketStarts[numBuckets] = numRows;
+
+		return bucketStarts;
+	}
+
+	/***
+	 * Returns the number of the bucket a time falls in
+	 *
+	 * @param time the time
+	 * @param startTime the start of the first bucket
+	 * @param interval the length of each bucket
+	 * @return the bucket number
+	 */
+	private static long bucketOf(double time, double startTime, double interval) {
+		return (long) Math.floor((time - startTime) / interval);
+	}
+
+	/***
+	 * Combines the values of a range of buckets of one column
+	 *
+	 * @param values the column
+	 * @param bucketStarts the first row of each bucket, followed by the number of rows
+	 * @param first the first bucket to combine
+	 * @param last the bucket after the last one to combine
+	 * @param aggregation how the values are combined
+	 * @param output where the value of each bucket is stored
+	 */
+	private static void aggregate(DoubleBuffer values, int[] bucketStarts, int first, int last,
+			Aggregation aggregation, double[] output) {
+		for (int b = first; b < last; b++) {
+			int start = bucketStarts[b], end = bucketStarts[b+1];
+
+			switch (aggregation) {
+			case MEAN:
+				double sum = 0;
+				for (int i = start; i < end; i++)
+					sum += values.get(i);
+				output[b] = sum / (end - start);
+				break;
+			case MIN:
+				// stays NaN only if every value is NaN
+				double min = Double.NaN;
+				for (int i = start; i < end; i++) {
+					double v = values.get(i);
+					if (v < min || Double.isNaN(min)) min = v;
+				}
+				output[b] = min;
+				break;
+			case MAX:
+				double max = Double.NaN;
+				for (int i = start; i < end; i++) {
+					double v = values.get(i);
+					if (v > max || Double.isNaN(max)) max = v;
+				}
+				output[b] = max;
+				break;
+			case LAST:
+				output[b] = values.get(end - 1);
+				break;
+			}
+		}
+	}
+
+	/***
+	 * Picks rows with Largest-Triangle-Three-Buckets. The rows between the first
+	 * and last are split into equal buckets, and from each bucket the row is picked
+	 * that makes the largest triangle with the row picked before it and the mean of
+	 * the next bucket.
+	 *
+	 * @param x the time column
+	 * @param y the column whose shape is kept
+	 * @param numRows the number of rows
+	 * @param numPoints the number of rows to pick
+	 * @return the picked rows in order
+	 */
+	private static int[] pickRows(DoubleBuffer x, DoubleBuffer y, int numRows, int numPoints) {
+		if (numPoints >= numRows) {
+			int[] rows = new int[numRows];
+			for (int i = 0; i < numRows; i++)
+				rows[i] = i;
+			return rows;
+		}
+
+		int[] rows = new int[numPoints];
+		double bucketSize = (double) (numRows - 2) / (numPoints - 2);
+		int picked = 0;
+
+		for (int k = 0; k < numPoints - 2; k++) {
+			boolean last = k == numPoints - 3;
+			int start = (int) (k * bucketSize) + 1, end = last ? numRows - 1 : (int) ((k + 1) * bucketSize) + 1;
+
+			// the bucket after the last one is the last row, so its mean is never empty
+			double meanX = x.get(numRows - 1), meanY = y.get(numRows - 1);
+			if (!last) {
+				int nextEnd = Math.min((int) ((k + 2) * bucketSize) + 1, numRows - 1);
+				meanX = 0;
+				meanY = 0;
+				for (int i = end; i < nextEnd; i++) {
+					meanX += x.get(i);
+					meanY += y.get(i);
+				}
+				meanX /= nextEnd - end;
+				meanY /= nextEnd - end;
+			}
+
+			double pickedX = x.get(picked), pickedY = y.get(picked);
+			double largestArea = -1;
+			int largest = start;
+			for (int i = start; i < end; i++) {
+				// twice the area, which picks the same row
+				double area = Math.abs((pickedX - meanX) * (y.get(i) - pickedY) - (pickedX - x.get(i)) * (meanY - pickedY));
+				if (area > largestArea) {
+					largestArea = area;
+					largest = i;
+				}
+			}
+
+			rows[k + 1] = largest;
+			picked = largest;
+		}
+
+		rows[numPoints - 1] = numRows - 1;
+		return rows;
+	}
+
+	/***
+	 * Runs a task for every index, on the common ForkJoinPool if asked to
+	 *
+	 * @param numTasks the number of tasks
+	 * @param parallel whether to run the tasks on several threads
+	 * @param task the task to run for each index
+	 */
+	private static void forEach(int numTasks, boolean parallel, IntConsumer task) {
+		IntStream tasks = IntStream.range(0, numTasks);
+		(parallel ? tasks.parallel() : tasks).forEach(task);
+	}
+}
@@ -0,0 +1,183 @@
+package csvhelper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/***
+ * Reads and writes a compact binary copy of a CSVData object. A snapshot has
+ * a header with the column names and the number of rows, followed by each 
+ * column as raw little-endian doubles, so it can be memory mapped and used 
+ * without parsing anything.
+ *
+ */
+public class CSVSnapshot {
+	public static final int MAGIC = 0x43535644;
+	public static final int VERSION = 1;
+
+	private String[] columnNames;
+	private CSVStorage storage;
+
+	/***
+	 * Creates a snapshot from the column names and storage that were read
+	 * 
+	 * @param columnNames the column names
+	 * @param storage the storage holding the values
+	 */
+	private CSVSnapshot(String[] columnNames, CSVStorage storage) {
+		this.columnNames = columnNames;
+		this.storage = storage;
+	}
+
+	/***
+	 * Writes the column names and values to a snapshot file
+	 * 
+	 * @param columnNames the column names
+	 * @param storage the storage holding the values
+	 * @param filepath the file path to save the snapshot
+	 * @throws IOException if the file can not be written
+	 */
+	public static void write(String[] columnNames, CSVStorage storage, String filepath) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(CSVReader.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(storage.getNumColumns()).putInt(storage.getNumRows());
+
+			long position = 16;
+			for (String columnName : columnNames) {
+				byte[] name = columnName.getBytes(StandardCharsets.UTF_8);
+				if (buffer.remaining() < Integer.BYTES + name.length) flush(channel, buffer);
+				if (buffer.remaining() < Integer.BYTES + name.length) 
+					throw new IOException("The column name " + columnName + " is too long");
+
+				buffer.putInt(name.length).put(name);
+				position += Integer.BYTES + name.length;
+			}
+
+			// the columns start at a multiple of 8 bytes
+			while (position % Double.BYTES != 0) {
+				buffer.put((byte) 0);
+				position++;
+			}
+
+			for (int j = 0; j < storage.getNumColumns(); j++) {
+				for (int i = 0; i < storage.getNumRows(); i++) {
+					if (buffer.remaining() < Double.BYTES) flush(channel, buffer);
+					buffer.putDouble(storage.get(i, j));
+				}
+			}
+
+			flush(channel, buffer);
+		}
+	}
+
+	/***
+	 * Writes everything in the buffer to the file and empties the buffer
+	 * 
+	 * @param channel the file to write to
+	 * @param buffer the buffer to write
+	 * @throws IOException if the file can not be written
+	 */
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/***
+	 * Memory maps a snapshot file. Each column is mapped on its own, so the 
+	 * values are read from the page cache as they are used. The mapping is always 
+	 * read only, whatever the permissions of the file, so changing a value or 
+	 * sorting the rows throws a ReadOnlyBufferException. Adding rows copies the 
+	 * columns off the file first. The header is checked against the size of the 
+	 * file before anything is mapped.
+	 * 
+	 * @param filepath the path to the snapshot
+	 * @return the snapshot
+	 * @throws IOException if the file can not be read, is not a snapshot, or is corrupt or truncated
+	 */
+	public static CSVSnapshot load(String filepath) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < 16) throw new IOException(filepath + " is not a CSVData snapshot");
+
+			ByteBuffer header = read(channel, 0, 16);
+			if (header.getInt() != MAGIC) throw new IOException(filepath + " is not a CSVData snapshot");
+			int version = header.getInt();
+			if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+			// every column name takes at least its length
+			int numColumns = header.getInt(), numRows = header.getInt();
+			if (numColumns < 0 || numColumns > (size - 16) / Integer.BYTES || numRows < 0)
+				throw new IOException(filepath + " is corrupt: " + numColumns + " columns of " + numRows + " rows");
+
+			long position = 16;
+			String[] columnNames = new String[numColumns];
+			for (int j = 0; j < numColumns; j++) {
+				if (position + Integer.BYTES > size) throw new IOException(filepath + " is truncated");
+				int length = read(channel, position, Integer.BYTES).getInt();
+				position += Integer.BYTES;
+				if (length < 0 || length > size - position) 
+					throw new IOException(filepath + " is corrupt: column " + j + " has a name of " + length + " bytes");
+
+				ByteBuffer name = read(channel, position, length);
+				columnNames[j] = StandardCharsets.UTF_8.decode(name).toString();
+				position += length;
+			}
+
+			long dataStart = (position + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+			long columnSize = (long) numRows * Double.BYTES;
+			if (columnSize > Integer.MAX_VALUE) 
+				throw new IOException(filepath + " has " + numRows + " rows, more than a column can map");
+			if (columnSize > 0 && (size - Math.min(size, dataStart)) / columnSize < numColumns) 
+				throw new IOException(filepath + " is truncated");
+
+			ByteBuffer[] columns = new ByteBuffer[numColumns];
+			for (int j = 0; j < numColumns; j++)
+				columns[j] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + j * columnSize, columnSize);
+
+			return new CSVSnapshot(columnNames, new OffHeapStorage(columns, numRows));
+		}
+	}
+
+	/***
+	 * Reads part of a file
+	 * 
+	 * @param channel the file to read
+	 * @param position where the part starts
+	 * @param length the number of bytes in the part
+	 * @return a little-endian buffer holding the part
+	 * @throws IOException if the file can not be read or ends too early
+	 */
+	private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) == -1) throw new IOException("The snapshot is truncated");
+
+		return buffer.flip();
+	}
+
+	/***
+	 * Returns the column names in the snapshot
+	 * 
+	 * @return the column names
+	 */
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+
+	/***
+	 * Returns the storage over the mapped values
+	 * 
+	 * @return the storage over the mapped values
+	 */
+	public CSVStorage getStorage() {
+		return storage;
+	}
+}
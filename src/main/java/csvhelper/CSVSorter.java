@@ -0,0 +1,214 @@
+package csvhelper;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/***
+ * Finds the order that sorts the rows of a CSVData object by one or more
+ * columns, as an int[] of row indexes, without boxing rows or values. Each
+ * value becomes a 64 bit key whose unsigned order is the order of the doubles,
+ * and the keys are put in order by a stable least significant digit radix sort,
+ * one byte at a time. Bytes that are the same in every key, like the high bytes
+ * of timestamps, are skipped. Several columns are sorted by sorting on the last
+ * column first, which works because every pass is stable. Large inputs are
+ * split into chunks that are counted and moved on the common ForkJoinPool.
+ *
+ */
+public class CSVSorter {
+	// inputs smaller than this are not worth splitting between threads
+	private static final int MIN_PARALLEL_ROWS = 1 << 16;
+	// the fewest rows each parallel task looks at
+	private static final int MIN_CHUNK_ROWS = 1 << 14;
+
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+	private static final int NUM_PASSES = Long.SIZE / RADIX_BITS;
+
+	/***
+	 * Returns the order that sorts the rows by some columns. Rows with the same
+	 * values keep the order they had. NaN sorts after every number when ascending,
+	 * and -0.0 before 0.0, the same as Arrays.sort.
+	 *
+	 * @param storage the values
+	 * @param columns the indexes of the columns to sort by, the most important first
+	 * @param ascending whether each column is sorted from the smallest value up
+	 * @return the index of the row that goes in each place
+	 */
+	static int[] sortOrder(CSVStorage storage, int[] columns, boolean[] ascending) {
+		if (columns.length != ascending.length)
+			throw new IllegalArgumentException("There are " + columns.length + " columns but " + ascending.length + " directions");
+
+		int numRows = storage.getNumRows();
+		int numChunks = numRows < MIN_PARALLEL_ROWS ? 1
+				: Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, numRows / MIN_CHUNK_ROWS));
+
+		int[] order = new int[numRows];
+		for (int i = 0; i < numRows; i++)
+			order[i] = i;
+
+		long[] keys = new long[numRows];
+		for (int k = columns.length - 1; k >= 0; k--) {
+			DoubleBuffer column = storage.getColumnView(columns[k]);
+			boolean up = ascending[k];
+			int[] current = order;
+
+			forEach(numChunks, chunk -> {
+				for (int i = chunkStart(chunk, numChunks, numRows), end = chunkStart(chunk + 1, numChunks, numRows); i < end; i++)
+					keys[i] = sortableKey(column.get(current[i]), up);
+			});
+
+			order = radixSort(keys, order, numChunks);
+		}
+
+		return order;
+	}
+
+	/***
+	 * Turns a double into a key whose unsigned order is the order of the doubles
+	 *
+	 * @param value the value
+	 * @param ascending whether smaller values come first
+	 * @return the key
+	 */
+	static long sortableKey(double value, boolean ascending) {
+		// every NaN becomes the same NaN, which is above infinity
+		long bits = Double.doubleToLongBits(value);
+
+		// negative numbers have every bit flipped so larger magnitudes come first, others only the sign
+		bits ^= (bits >> 63) | Long.MIN_VALUE;
+		return ascending ? bits : ~bits;
+	}
+
+	/***
+	 * Sorts the keys, moving the row indexes with them. The sort is stable.
+	 *
+	 * @param keys the keys, which are sorted in place
+	 * @param order the row index for each key
+	 * @param numChunks the number of chunks to split each pass into
+	 * @return the row indexes in the order of the sorted keys
+	 */
+	private static int[] radixSort(long[] keys, int[] order, int numChunks) {
+		int numRows = keys.length;
+		if (numRows < 2) return order;
+
+		// how many keys have each digit, for every pass and every chunk
+		int[][][] counts = new int[NUM_PASSES][numChunks][RADIX];
+		long[] input = keys;
+		forEach(numChunks, chunk -> {
+			for (int i = chunkStart(chunk, numChunks, numRows), end = chunkStart(chunk + 1, numChunks, numRows); i < end; i++) {
+				long key = input[i];
+				for (int pass = 0; pass < NUM_PASSES; pass++)
+					counts[pass][chunk][(int) (key >>> (pass * RADIX_BITS)) & (RADIX - 1)]++;
+			}
+		});
+
+		long[] otherKeys = null;
+		int[] otherOrder = null;
+
+		for (int pass = 0; pass < NUM_PASSES; pass++) {
+			int shift = pass * RADIX_BITS;
+			if (isSameDigit(counts[pass], (int) (keys[0] >>> shift) & (RADIX - 1), numRows)) continue;
+
+			// once a pass has moved the keys, the chunks hold other keys and are counted again
+			if (numChunks > 1 && otherKeys != null) countDigits(keys, shift, counts[pass], numChunks);
+
+			// each chunk writes the keys with each digit after the keys of earlier digits and earlier chunks
+			int[][] offsets = new int[numChunks][RADIX];
+			int next = 0;
+			for (int digit = 0; digit < RADIX; digit++) {
+				for (int chunk = 0; chunk < numChunks; chunk++) {
+					offsets[chunk][digit] = next;
+					next += counts[pass][chunk][digit];
+				}
+			}
+
+			if (otherKeys == null) {
+				otherKeys = new long[numRows];
+				otherOrder = new int[numRows];
+			}
+
+			long[] fromKeys = keys, toKeys = otherKeys;
+			int[] fromOrder = order, toOrder = otherOrder;
+			forEach(numChunks, chunk -> {
+				int[] offset = offsets[chunk];
+				for (int i = chunkStart(chunk, numChunks, numRows), end = chunkStart(chunk + 1, numChunks, numRows); i < end; i++) {
+					long key = fromKeys[i];
+					int place = offset[(int) (key >>> shift) & (RADIX - 1)]++;
+					toKeys[place] = key;
+					toOrder[place] = fromOrder[i];
+				}
+			});
+
+			otherKeys = keys;
+			otherOrder = order;
+			keys = toKeys;
+			order = toOrder;
+		}
+
+		// the caller reuses the keys array for the next column
+		if (keys != input) System.arraycopy(keys, 0, input, 0, numRows);
+		return order;
+	}
+
+	/***
+	 * Counts how many keys in each chunk have each digit
+	 *
+	 * @param keys the keys
+	 * @param shift where the digit is in a key
+	 * @param counts where the counts of each chunk are stored
+	 * @param numChunks the number of chunks
+	 */
+	private static void countDigits(long[] keys, int shift, int[][] counts, int numChunks) {
+		int numRows = keys.length;
+
+		forEach(numChunks, chunk -> {
+			int[] chunkCounts = counts[chunk];
+			Arrays.fill(chunkCounts, 0);
+
+			for (int i = chunkStart(chunk, numChunks, numRows), end = chunkStart(chunk + 1, numChunks, numRows); i < end; i++)
+				chunkCounts[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+		});
+	}
+
+	/***
+	 * Returns whether every key has the same digit, so the pass can be skipped
+	 *
+	 * @param counts how many keys in each chunk have each digit
+	 * @param digit the digit of any one key
+	 * @param numRows the number of keys
+	 * @return whether every key has that digit
+	 */
+	private static boolean isSameDigit(int[][] counts, int digit, int numRows) {
+		int total = 0;
+		for (int[] chunkCounts : counts)
+			total += chunkCounts[digit];
+
+		return total == numRows;
+	}
+
+	/***
+	 * Returns the first row of a chunk
+	 *
+	 * @param chunk the index of the chunk
+	 * @param numChunks the number of chunks
+	 * @param numRows the number of rows
+	 * @return the first row of the chunk, or the number of rows for the chunk after the last
+	 */
+	private static int chunkStart(int chunk, int numChunks, int numRows) {
+		return (int) ((long) numRows * chunk / numChunks);
+	}
+
+	/***
+	 * Runs a task for every chunk, on the common ForkJoinPool when there is more than one
+	 *
+	 * @param numChunks the number of chunks
+	 * @param task the task to run for each chunk
+	 */
+	private static void forEach(int numChunks, IntConsumer task) {
+		IntStream chunks = IntStream.range(0, numChunks);
+		(numChunks > 1 ? chunks.parallel() : chunks).forEach(task);
+	}
+}
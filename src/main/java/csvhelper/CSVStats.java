@@ -0,0 +1,148 @@
+package csvhelper;
+
+/***
+ * What one load or export of a CSVData object did and how long it took. 
+ * The time spent parsing or formatting is whatever is left of the total 
+ * after the time spent waiting on input and output.
+ *
+ */
+public class CSVStats {
+	/***
+	 * The kinds of work that are measured
+	 */
+	public enum Operation {
+		LOAD,
+		EXPORT
+	}
+
+	private final Operation operation;
+	private final String filepath;
+	private final long numBytes;
+	private final long numRows;
+	private final long numMalformedLines;
+	private final long totalNanos;
+	private final long ioNanos;
+	private final int peakBufferSize;
+
+	/***
+	 * Creates the measurements of one load or export
+	 * 
+	 * @param operation whether it was a load or an export
+	 * @param filepath the file read or written, or null for a stream
+	 * @param numBytes the number of bytes read or written
+	 * @param numRows the number of rows read or written
+	 * @param numMalformedLines the number of lines that could not be parsed and were skipped
+	 * @param totalNanos the nanoseconds the whole operation took
+	 * @param ioNanos the nanoseconds spent reading or mapping the input, or writing the output
+	 * @param peakBufferSize the largest buffer used, in bytes
+	 */
+	CSVStats(Operation operation, String filepath, long numBytes, long numRows, long numMalformedLines, 
+			long totalNanos, long ioNanos, int peakBufferSize) {
+		this.operation = operation;
+		this.filepath = filepath;
+		this.numBytes = numBytes;
+		this.numRows = numRows;
+		this.numMalformedLines = numMalformedLines;
+		this.totalNanos = totalNanos;
+		this.ioNanos = ioNanos;
+		this.peakBufferSize = peakBufferSize;
+	}
+
+	/***
+	 * Returns whether this was a load or an export
+	 * 
+	 * @return the operation
+	 */
+	public Operation getOperation() {
+		return operation;
+	}
+
+	/***
+	 * Returns the file that was read or written
+	 * 
+	 * @return the path to the file, or null for a stream
+	 */
+	public String getFilePath() {
+		return filepath;
+	}
+
+	/***
+	 * Returns the number of bytes read or written. For compressed files this 
+	 * counts the decompressed bytes.
+	 * 
+	 * @return the number of bytes
+	 */
+	public long getNumBytes() {
+		return numBytes;
+	}
+
+	/***
+	 * Returns the number of rows read or written
+	 * 
+	 * @return the number of rows
+	 */
+	public long getNumRows() {
+		return numRows;
+	}
+
+	/***
+	 * Returns the number of lines that could not be parsed and were skipped
+	 * 
+	 * @return the number of malformed lines
+	 */
+	public long getNumMalformedLines() {
+		return numMalformedLines;
+	}
+
+	/***
+	 * Returns how long the whole operation took
+	 * 
+	 * @return the time in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/***
+	 * Returns how long was spent reading or mapping the input, or writing the output
+	 * 
+	 * @return the time in nanoseconds
+	 */
+	public long getIONanos() {
+		return ioNanos;
+	}
+
+	/***
+	 * Returns how long was spent parsing the input or formatting the output
+	 * 
+	 * @return the time in nanoseconds
+	 */
+	public long getProcessingNanos() {
+		return Math.max(0, totalNanos - ioNanos);
+	}
+
+	/***
+	 * Returns the size of the largest buffer used
+	 * 
+	 * @return the size in bytes
+	 */
+	public int getPeakBufferSize() {
+		return peakBufferSize;
+	}
+
+	/***
+	 * Returns the number of rows handled per second
+	 * 
+	 * @return the rows per second
+	 */
+	public double getRowsPerSecond() {
+		return totalNanos == 0 ? 0 : numRows * 1e9 / totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		return operation + " " + (filepath == null ? "stream" : filepath) + ": " + numRows + " rows, " 
+				+ numBytes + " bytes, " + numMalformedLines + " malformed lines in " + totalNanos / 1e6 
+				+ " ms (" + ioNanos / 1e6 + " ms I/O), peak buffer " + peakBufferSize + " bytes";
+	}
+}
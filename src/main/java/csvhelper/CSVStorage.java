@@ -0,0 +1,276 @@
+package csvhelper;
+
+import java.nio.DoubleBuffer;
+
+/***
+ * Holds the values of a CSVData object. Subclasses decide how the values 
+ * are laid out in memory.
+ *
+ */
+public abstract class CSVStorage implements AutoCloseable {
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/***
+	 * The ways a CSVData object can lay out its values
+	 */
+	public enum Layout {
+		/** one double[] per row */
+		ROWS,
+		/** one contiguous double[] per column */
+		COLUMNS,
+		/** one direct buffer per column, outside the heap */
+		OFF_HEAP,
+		/** one float[] per column, except a double[] for the first (time) column */
+		FLOATS
+	}
+
+	protected int numRows;
+	protected int numColumns;
+
+	/***
+	 * Creates empty storage in the layout specified
+	 * 
+	 * @param layout the layout of the values
+	 * @param numColumns the number of columns
+	 * @return the new storage
+	 */
+	public static CSVStorage create(Layout layout, int numColumns) {
+		return create(layout, numColumns, 0);
+	}
+
+	/***
+	 * Creates empty storage in the layout specified
+	 * 
+	 * @param layout the layout of the values
+	 * @param numColumns the number of columns
+	 * @param timeColumn the column that holds the time, which keeps its full 
+	 * precision in the FLOATS layout
+	 * @return the new storage
+	 */
+	public static CSVStorage create(Layout layout, int numColumns, int timeColumn) {
+		switch (layout) {
+		case COLUMNS:
+			return new ColumnStorage(numColumns, INITIAL_CAPACITY);
+		case OFF_HEAP:
+			return new OffHeapStorage(numColumns, INITIAL_CAPACITY);
+		case FLOATS:
+			return new FloatStorage(numColumns, INITIAL_CAPACITY, timeColumn);
+		default:
+			return new RowStorage(numColumns, INITIAL_CAPACITY);
+		}
+	}
+
+	/***
+	 * Returns the number of rows
+	 * 
+	 * @return the number of rows
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/***
+	 * Returns the number of columns
+	 * 
+	 * @return the number of columns
+	 */
+	public int getNumColumns() {
+		return numColumns;
+	}
+
+	/***
+	 * Adds a row after the last row, growing the storage when it is full. 
+	 * The values are copied.
+	 * 
+	 * @param rowValues the values of the new row
+	 */
+	public void addRow(double[] rowValues) {
+		if (numRows == getCapacity()) resize(Math.max(INITIAL_CAPACITY, getCapacity() * 2));
+		copyRow(numRows++, rowValues);
+	}
+
+	/***
+	 * Adds rows after the last row whose values are filled in later with copyRow. 
+	 * Different rows may be filled from different threads.
+	 * 
+	 * @param count the number of rows to add
+	 * @throws IllegalStateException if the number of rows would pass Integer.MAX_VALUE
+	 */
+	public void reserveRows(int count) {
+		if ((long) numRows + count > Integer.MAX_VALUE) 
+			throw new IllegalStateException("A storage can not hold more than " + Integer.MAX_VALUE + " rows");
+		if (numRows + count > getCapacity()) resize(numRows + count);
+		numRows += count;
+	}
+
+	/***
+	 * Removes rows, moving the rows after them up
+	 * 
+	 * @param rowIndexes the indexes of the rows to remove, in increasing order
+	 */
+	public void removeRows(int[] rowIndexes) {
+		if (rowIndexes.length == 0) return;
+		int next = 0, numKept = rowIndexes[0];
+
+		for (int i = numKept; i < numRows; i++) {
+			if (next < rowIndexes.length && rowIndexes[next] == i) {
+				next++;
+				continue;
+			}
+			if (numKept != i) copyRow(numKept, getRow(i));
+			numKept++;
+		}
+
+		numRows = numKept;
+	}
+
+	/***
+	 * Releases the space reserved for rows that were never added
+	 */
+	public void trimToSize() {
+		if (numRows < getCapacity()) resize(numRows);
+	}
+
+	/***
+	 * Releases memory held outside the heap. Nothing happens for storage on the heap.
+	 */
+	@Override
+	public void close() {
+	}
+
+	/***
+	 * Returns all the values in a column as a new array
+	 * 
+	 * @param columnIndex the index of the column
+	 * @return all the values in a column
+	 */
+	public double[] getColumn(int columnIndex) {
+		double[] columnValues = new double[numRows];
+
+		for (int i = 0; i < numRows; i++)
+			columnValues[i] = get(i, columnIndex);
+
+		return columnValues;
+	}
+
+	/***
+	 * Sets a full column by copying the values
+	 * 
+	 * @param columnIndex the index of the column
+	 * @param columnValues the values to store in the column
+	 */
+	public void setColumn(int columnIndex, double[] columnValues) {
+		for (int i = 0; i < numRows; i++)
+			set(i, columnIndex, columnValues[i]);
+	}
+
+	/***
+	 * Puts the rows in a new order, one column at a time
+	 * 
+	 * @param order the index of the row that goes in each place
+	 */
+	public void permuteRows(int[] order) {
+		double[] permuted = new double[numRows];
+
+		for (int j = 0; j < numColumns; j++) {
+			DoubleBuffer column = getColumnView(j);
+			for (int i = 0; i < numRows; i++)
+				permuted[i] = column.get(order[i]);
+
+			setColumn(j, permuted);
+		}
+	}
+
+	/***
+	 * Computes the statistics of a column, reading it through getColumnView. The 
+	 * ROWS and FLOATS layouts read their arrays directly so no copy is made.
+	 * 
+	 * @param columnIndex the index of the column
+	 * @return the statistics of the column
+	 */
+	public ColumnStats getColumnStats(int columnIndex) {
+		return ColumnStats.of(getColumnView(columnIndex), numRows);
+	}
+
+	/***
+	 * Returns whether a column rounds its values to floats
+	 * 
+	 * @param columnIndex the index of the column
+	 * @return whether the column holds floats
+	 */
+	public boolean isFloatColumn(int columnIndex) {
+		return false;
+	}
+
+	/***
+	 * Returns one value
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return the value at that point
+	 */
+	public abstract double get(int rowIndex, int columnIndex);
+
+	/***
+	 * Sets a value at a specific spot
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the value to save
+	 */
+	public abstract void set(int rowIndex, int columnIndex, double value);
+
+	/***
+	 * Returns all the values in a row
+	 * 
+	 * @param rowIndex the index of the row
+	 * @return all the values in a row
+	 */
+	public abstract double[] getRow(int rowIndex);
+
+	/***
+	 * Sets a full row
+	 * 
+	 * @param rowIndex the index for the row to replace
+	 * @param rowValues the values to save into the row
+	 */
+	public abstract void setRow(int rowIndex, double[] rowValues);
+
+	/***
+	 * Returns a read-only buffer over the values in a column
+	 * 
+	 * @param columnIndex the index of the column
+	 * @return a read-only buffer over the values in a column
+	 */
+	public abstract DoubleBuffer getColumnView(int columnIndex);
+
+	/***
+	 * Swaps the values of two columns
+	 * 
+	 * @param index1 the index for the 1st column to be swapped
+	 * @param index2 the index for the 2nd column to be swapped
+	 */
+	public abstract void swapColumns(int index1, int index2);
+
+	/***
+	 * Copies values into a row that has already been added
+	 * 
+	 * @param rowIndex the index of the row
+	 * @param rowValues the values to copy
+	 */
+	public abstract void copyRow(int rowIndex, double[] rowValues);
+
+	/***
+	 * Returns the number of rows there is space for
+	 * 
+	 * @return the number of rows there is space for
+	 */
+	protected abstract int getCapacity();
+
+	/***
+	 * Changes the number of rows there is space for, keeping the existing rows
+	 * 
+	 * @param capacity the new number of rows there is space for
+	 */
+	protected abstract void resize(int capacity);
+}
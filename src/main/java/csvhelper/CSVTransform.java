@@ -0,0 +1,311 @@
+package csvhelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.function.Predicate;
+
+/***
+ * Changes to make to every row while a file is parsed, so the finished CSVData
+ * comes out of one pass instead of one pass per swapColumns, correctTime or
+ * filter. Columns are named, and the names are looked up once the column names
+ * of the file are known. Whatever order the steps are added in, each row goes
+ * through them in this order:
+ *
+ * 1. the columns are put in the order given to reorder, which costs nothing per row
+ * 2. the first value of every elapsedTime column is subtracted
+ * 3. the scale and offset steps of each column are applied in the order they were added
+ * 4. the row is dropped unless every filter accepts it
+ *
+ * Filters may be called from several threads during a parallel load.
+ *
+ */
+public class CSVTransform {
+	private String[] order;
+	private final List<String> elapsedColumns = new ArrayList<>();
+	private final List<Step> steps = new ArrayList<>();
+	private final List<Filter> filters = new ArrayList<>();
+
+	/***
+	 * A scale or offset of one column
+	 */
+	private static class Step {
+		final String column;
+		final double scale;
+		final double offset;
+
+		Step(String column, double scale, double offset) {
+			this.column = column;
+			this.scale = scale;
+			this.offset = offset;
+		}
+	}
+
+	/***
+	 * A test of a whole row or of one column
+	 */
+	private static class Filter {
+		final String column;
+		final DoublePredicate valueTest;
+		final Predicate<double[]> rowTest;
+
+		Filter(String column, DoublePredicate valueTest, Predicate<double[]> rowTest) {
+			this.column = column;
+			this.valueTest = valueTest;
+			this.rowTest = rowTest;
+		}
+	}
+
+	/***
+	 * Puts the named columns first, in the order given. The other columns follow
+	 * in the order they had.
+	 *
+	 * @param colNames the names of the columns to put first
+	 * @return this transform
+	 */
+	public CSVTransform reorder(String... colNames) {
+		this.order = colNames.clone();
+		return this;
+	}
+
+	/***
+	 * Makes a column the time since the first row of the file, whether or not
+	 * that row is filtered out, and renames it "Elapsed Time" the same as
+	 * CSVData.correctTime
+	 *
+	 * @param colName the name of the time column
+	 * @return this transform
+	 */
+	public CSVTransform elapsedTime(String colName) {
+		elapsedColumns.add(colName);
+		return this;
+	}
+
+	/***
+	 * Multiplies every value of a column by a factor
+	 *
+	 * @param colName the name of the column
+	 * @param factor the factor
+	 * @return this transform
+	 */
+	public CSVTransform scale(String colName, double factor) {
+		steps.add(new Step(colName, factor, 0));
+		return this;
+	}
+
+	/***
+	 * Adds an amount to every value of a column
+	 *
+	 * @param colName the name of the column
+	 * @param amount the amount to add
+	 * @return this transform
+	 */
+	public CSVTransform offset(String colName, double amount) {
+		steps.add(new Step(colName, 1, amount));
+		return this;
+	}
+
+	/***
+	 * Keeps only the rows a predicate accepts. The predicate sees the row after
+	 * the other steps, with the columns in their final order, and must not keep
+	 * the array.
+	 *
+	 * @param predicate the test each row must pass
+	 * @return this transform
+	 */
+	public CSVTransform filter(Predicate<double[]> predicate) {
+		filters.add(new Filter(null, null, predicate));
+		return this;
+	}
+
+	/***
+	 * Keeps only the rows where the value of a column passes a test
+	 *
+	 * @param colName the name of the column
+	 * @param predicate the test the value must pass
+	 * @return this transform
+	 */
+	public CSVTransform filter(String colName, DoublePredicate predicate) {
+		filters.add(new Filter(colName, predicate, null));
+		return this;
+	}
+
+	/***
+	 * Looks up the columns the steps name and prepares them for one load
+	 *
+	 * @param columnNames the names of the columns as they are stored without the transform
+	 * @return the steps for those columns
+	 * @throws IllegalArgumentException if a step names a column that does not exist
+	 */
+	Plan bind(String[] columnNames) {
+		int numColumns = columnNames.length;
+		int[] sourceColumns = new int[numColumns];
+		boolean[] placed = new boolean[numColumns];
+		int k = 0;
+
+		if (order != null) {
+			for (String name : order) {
+				int column = indexOf(columnNames, name);
+				if (placed[column]) throw new IllegalArgumentException("The column " + name + " is reordered twice");
+
+				placed[column] = true;
+				sourceColumns[k++] = column;
+			}
+		}
+		for (int j = 0; j < numColumns; j++)
+			if (!placed[j]) sourceColumns[k++] = j;
+
+		String[] names = new String[numColumns];
+		for (int j = 0; j < numColumns; j++)
+			names[j] = columnNames[sourceColumns[j]];
+
+		int[] elapsed = new int[elapsedColumns.size()];
+		for (int e = 0; e < elapsed.length; e++)
+			elapsed[e] = indexOf(names, elapsedColumns.get(e));
+
+		double[] scales = new double[numColumns], offsets = new double[numColumns];
+		Arrays.fill(scales, 1);
+		boolean[] changed = new boolean[numColumns];
+		for (Step step : steps) {
+			int column = indexOf(names, step.column);
+			scales[column] *= step.scale;
+			offsets[column] = offsets[column] * step.scale + step.offset;
+			changed[column] = true;
+		}
+
+		int numChanged = 0;
+		int[] changedColumns = new int[numColumns];
+		for (int j = 0; j < numColumns; j++)
+			if (changed[j]) changedColumns[numChanged++] = j;
+
+		List<Predicate<double[]>> rowTests = new ArrayList<>();
+		for (Filter filter : filters) {
+			if (filter.rowTest != null) {
+				rowTests.add(filter.rowTest);
+			} else {
+				int column = indexOf(names, filter.column);
+				rowTests.add(row -> filter.valueTest.test(row[column]));
+			}
+		}
+
+		// renamed last so the other steps can use the old name
+		for (int column : elapsed)
+			names[column] = "Elapsed Time";
+
+		return new Plan(names, sourceColumns, elapsed, Arrays.copyOf(changedColumns, numChanged), scales, offsets, rowTests);
+	}
+
+	/***
+	 * Finds a column by name
+	 *
+	 * @param names the names of the columns
+	 * @param name the name to find
+	 * @return the index of the column
+	 * @throws IllegalArgumentException if there is no column with that name
+	 */
+	private static int indexOf(String[] names, String name) {
+		for (int j = 0; j < names.length; j++)
+			if (names[j].equals(name)) return j;
+
+		throw new IllegalArgumentException("The column name " + name + " does not exist as a column title");
+	}
+
+	/***
+	 * The steps of a transform with the columns looked up, for one load. Once the
+	 * first row has been seen, it only reads its fields, so chunks of a file can
+	 * be transformed on several threads.
+	 */
+	static class Plan {
+		private final String[] columnNames;
+		private final int[] sourceColumns;
+		private final int[] elapsedColumns;
+		private final int[] changedColumns;
+		private final double[] scales;
+		private final double[] offsets;
+		private final List<Predicate<double[]>> filters;
+		private double[] origins;
+
+		Plan(String[] columnNames, int[] sourceColumns, int[] elapsedColumns, int[] changedColumns,
+				double[] scales, double[] offsets, List<Predicate<double[]>> filters) {
+			this.columnNames = columnNames;
+			this.sourceColumns = sourceColumns;
+			this.elapsedColumns = elapsedColumns;
+			this.changedColumns = changedColumns;
+			this.scales = scales;
+			this.offsets = offsets;
+			this.filters = filters;
+		}
+
+		/***
+		 * Returns the names of the columns after the transform
+		 *
+		 * @return the column names
+		 */
+		String[] getColumnNames() {
+			return columnNames;
+		}
+
+		/***
+		 * Returns the column each column came from before it was reordered
+		 *
+		 * @return the original index of each column
+		 */
+		int[] getSourceColumns() {
+			return sourceColumns;
+		}
+
+		/***
+		 * Returns the columns that hold elapsed time, in their final order
+		 *
+		 * @return the indexes of the elapsed time columns
+		 */
+		int[] getElapsedColumns() {
+			return elapsedColumns;
+		}
+
+		/***
+		 * Returns whether the first row is still needed to find the elapsed time
+		 *
+		 * @return whether the first row is still needed
+		 */
+		boolean needsFirstRow() {
+			return origins == null && elapsedColumns.length > 0;
+		}
+
+		/***
+		 * Transforms a row in place and tests whether it is kept. The first row
+		 * given is the one the elapsed time is measured from.
+		 *
+		 * @param row the parsed row, with the columns in their final order
+		 * @return whether the row is kept
+		 */
+		boolean apply(double[] row) {
+			if (needsFirstRow()) setFirstRow(row);
+
+			for (int e = 0; e < elapsedColumns.length; e++)
+				row[elapsedColumns[e]] -= origins[e];
+
+			for (int column : changedColumns)
+				row[column] = row[column] * scales[column] + offsets[column];
+
+			for (int f = 0; f < filters.size(); f++)
+				if (!filters.get(f).test(row)) return false;
+
+			return true;
+		}
+
+		/***
+		 * Remembers the values the elapsed time is measured from
+		 *
+		 * @param row the first row of the file, before it is transformed
+		 */
+		void setFirstRow(double[] row) {
+			double[] firstValues = new double[elapsedColumns.length];
+			for (int e = 0; e < firstValues.length; e++)
+				firstValues[e] = row[elapsedColumns[e]];
+
+			this.origins = firstValues;
+		}
+	}
+}
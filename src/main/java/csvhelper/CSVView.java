@@ -0,0 +1,224 @@
+package csvhelper;
+
+/***
+ * A read-through view over some of the rows and columns of a CSVData object. 
+ * Creating a view copies nothing but the indexes it selects, and every value is 
+ * read from the storage when it is asked for, so values changed with the set 
+ * methods show up in the view. Use toArray for a copy that does not change.
+ *
+ */
+public class CSVView {
+	private final CSVStorage storage;
+	private final String[] columnNames;
+	private final int[] columnIndexes;
+	private final int[] rowIndexes;
+	private final int rowStart;
+	private final int numRows;
+
+	/***
+	 * Creates a view over a range of rows, or over a set of rows when rowIndexes is not null
+	 * 
+	 * @param storage the storage holding the values
+	 * @param columnNames the names of the columns in the view
+	 * @param columnIndexes the index in the storage of each column in the view
+	 * @param rowIndexes the index in the storage of each row in the view, or null for a range
+	 * @param rowStart the index in the storage of the first row of a range
+	 * @param numRows the number of rows in the view
+	 */
+	CSVView(CSVStorage storage, String[] columnNames, int[] columnIndexes, int[] rowIndexes, int rowStart, int numRows) {
+		this.storage = storage;
+		this.columnNames = columnNames;
+		this.columnIndexes = columnIndexes;
+		this.rowIndexes = rowIndexes;
+		this.rowStart = rowStart;
+		this.numRows = numRows;
+	}
+
+	/***
+	 * Returns the number of rows in the view
+	 * 
+	 * @return the number of rows
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/***
+	 * Returns the number of columns in the view
+	 * 
+	 * @return the number of columns
+	 */
+	public int getNumColumns() {
+		return columnIndexes.length;
+	}
+
+	/***
+	 * Returns the names of the columns in the view
+	 * 
+	 * @return the column names
+	 */
+	public String[] getColumnTitles() {
+		return columnNames.clone();
+	}
+
+	/***
+	 * Finds the index in the view of the column specified by name. 
+	 * Returns -1 if the name is invalid
+	 * 
+	 * @param colName the name of the column
+	 * @return the column index
+	 */
+	public int getColumnIndex(String colName) {
+		for (int j = 0; j < columnNames.length; j++)
+			if (columnNames[j].equals(colName)) return j;
+
+		return -1;
+	}
+
+	/***
+	 * Returns the index in the CSVData object of a row of the view
+	 * 
+	 * @param rowIndex the index of the row in the view
+	 * @return the index of the row in the CSVData object
+	 */
+	public int getSourceRow(int rowIndex) {
+		if (rowIndex < 0 || rowIndex >= numRows) 
+			throw new IndexOutOfBoundsException("Row " + rowIndex + " is not in a view of " + numRows + " rows");
+
+		return rowIndexes == null ? rowStart + rowIndex : rowIndexes[rowIndex];
+	}
+
+	/***
+	 * Returns one value
+	 * 
+	 * @param rowIndex the index of the row in the view
+	 * @param columnIndex the index of the column in the view
+	 * @return the value at that point
+	 */
+	public double getValue(int rowIndex, int columnIndex) {
+		return storage.get(getSourceRow(rowIndex), columnIndexes[columnIndex]);
+	}
+
+	/***
+	 * Copies the values of a row into an array, so a loop over the rows can reuse one array
+	 * 
+	 * @param rowIndex the index of the row in the view
+	 * @param rowValues the array to fill, with space for every column of the view
+	 * @return the array that was passed in
+	 */
+	public double[] getRow(int rowIndex, double[] rowValues) {
+		int sourceRow = getSourceRow(rowIndex);
+
+		for (int j = 0; j < columnIndexes.length; j++)
+			rowValues[j] = storage.get(sourceRow, columnIndexes[j]);
+
+		return rowValues;
+	}
+
+	/***
+	 * Returns the values of a row as a new array
+	 * 
+	 * @param rowIndex the index of the row in the view
+	 * @return the values of the row
+	 */
+	public double[] getRow(int rowIndex) {
+		return getRow(rowIndex, new double[columnIndexes.length]);
+	}
+
+	/***
+	 * Returns the values of a column as a new array
+	 * 
+	 * @param columnIndex the index of the column in the view
+	 * @return the values of the column
+	 */
+	public double[] getColumn(int columnIndex) {
+		double[] columnValues = new double[numRows];
+		int sourceColumn = columnIndexes[columnIndex];
+
+		for (int i = 0; i < numRows; i++)
+			columnValues[i] = storage.get(rowIndexes == null ? rowStart + i : rowIndexes[i], sourceColumn);
+
+		return columnValues;
+	}
+
+	/***
+	 * Returns a view over a range of the rows of this view
+	 * 
+	 * @param startIndex the first row of this view to include
+	 * @param endIndex the row of this view after the last one to include
+	 * @return the view over those rows
+	 */
+	public CSVView viewRows(int startIndex, int endIndex) {
+		checkRange(startIndex, endIndex, numRows);
+		if (rowIndexes == null) 
+			return new CSVView(storage, columnNames, columnIndexes, null, rowStart + startIndex, endIndex - startIndex);
+
+		int[] selected = new int[endIndex - startIndex];
+		System.arraycopy(rowIndexes, startIndex, selected, 0, selected.length);
+		return new CSVView(storage, columnNames, columnIndexes, selected, 0, selected.length);
+	}
+
+	/***
+	 * Returns a view over some of the rows of this view, in the order given
+	 * 
+	 * @param rows the rows of this view to include
+	 * @return the view over those rows
+	 */
+	public CSVView viewRows(int[] rows) {
+		int[] selected = new int[rows.length];
+		for (int i = 0; i < rows.length; i++)
+			selected[i] = getSourceRow(rows[i]);
+
+		return new CSVView(storage, columnNames, columnIndexes, selected, 0, selected.length);
+	}
+
+	/***
+	 * Returns a view over some of the columns of this view, in the order given
+	 * 
+	 * @param columns the columns of this view to include
+	 * @return the view over those columns
+	 */
+	public CSVView viewColumns(int[] columns) {
+		String[] selectedNames = new String[columns.length];
+		int[] selected = new int[columns.length];
+
+		for (int j = 0; j < columns.length; j++) {
+			selectedNames[j] = columnNames[columns[j]];
+			selected[j] = columnIndexes[columns[j]];
+		}
+
+		return new CSVView(storage, selectedNames, selected, rowIndexes, rowStart, numRows);
+	}
+
+	/***
+	 * Copies every value in the view into a new array of rows
+	 * 
+	 * @return the values, one array per row
+	 */
+	public double[][] toArray() {
+		double[][] output = new double[numRows][columnIndexes.length];
+
+		// one column at a time, which reads the COLUMNS and OFF_HEAP layouts in order
+		for (int j = 0; j < columnIndexes.length; j++) {
+			int sourceColumn = columnIndexes[j];
+			for (int i = 0; i < numRows; i++)
+				output[i][j] = storage.get(rowIndexes == null ? rowStart + i : rowIndexes[i], sourceColumn);
+		}
+
+		return output;
+	}
+
+	/***
+	 * Checks that a range of rows or columns is inside the number there are
+	 * 
+	 * @param startIndex the first index of the range
+	 * @param endIndex the index after the last one in the range
+	 * @param size the number of rows or columns
+	 * @throws IndexOutOfBoundsException if the range is not inside them
+	 */
+	static void checkRange(int startIndex, int endIndex, int size) {
+		if (startIndex < 0 || endIndex > size || startIndex > endIndex) 
+			throw new IndexOutOfBoundsException("The range " + startIndex + " to " + endIndex 
+					+ " is not inside 0 to " + size);
+	}
+}
@@ -0,0 +1,300 @@
+package csvhelper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/***
+ * Writes the titles and rows of a CSVData object as text through one 
+ * reusable buffer, so exporting takes the same memory no matter how many 
+ * rows there are
+ *
+ */
+public class CSVWriter {
+	public static final int BUFFER_SIZE = 1 << 16;
+
+	// the most bytes one formatted value can take
+	private static final int MAX_VALUE_LENGTH = 32;
+
+	// the largest long that a double holds exactly
+	private static final long MAX_EXACT_LONG = 1L << 53;
+
+	private static final long[] POWERS_OF_TEN = {
+			1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 
+			1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 
+			100000000000000L, 1000000000000000L, 10000000000000000L};
+
+	/***
+	 * Where the text goes
+	 */
+	private interface Sink {
+		void write(byte[] bytes, int length) throws IOException;
+		void writeText(String text) throws IOException;
+	}
+
+	private Sink sink;
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int count;
+	private long numBytesWritten;
+	private long ioNanos;
+
+	/***
+	 * Creates a writer for a Writer
+	 * 
+	 * @param writer where the text goes
+	 */
+	public CSVWriter(Writer writer) {
+		char[] chars = new char[BUFFER_SIZE];
+		this.sink = new Sink() {
+			public void write(byte[] bytes, int length) throws IOException {
+				// the formatted values are plain ASCII
+				for (int i = 0; i < length; i++)
+					chars[i] = (char) bytes[i];
+				writer.write(chars, 0, length);
+			}
+
+			public void writeText(String text) throws IOException {
+				writer.write(text);
+			}
+		};
+	}
+
+	/***
+	 * Creates a writer for an OutputStream. The text is written as UTF-8.
+	 * 
+	 * @param out where the text goes
+	 */
+	public CSVWriter(OutputStream out) {
+		this.sink = new Sink() {
+			public void write(byte[] bytes, int length) throws IOException {
+				out.write(bytes, 0, length);
+			}
+
+			public void writeText(String text) throws IOException {
+				out.write(text.getBytes(StandardCharsets.UTF_8));
+			}
+		};
+	}
+
+	/***
+	 * Creates a writer for a WritableByteChannel. The text is written as UTF-8.
+	 * 
+	 * @param channel where the text goes
+	 */
+	public CSVWriter(WritableByteChannel channel) {
+		this.sink = new Sink() {
+			public void write(byte[] bytes, int length) throws IOException {
+				ByteBuffer wrapped = ByteBuffer.wrap(bytes, 0, length);
+				while (wrapped.hasRemaining())
+					channel.write(wrapped);
+			}
+
+			public void writeText(String text) throws IOException {
+				ByteBuffer wrapped = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+				while (wrapped.hasRemaining())
+					channel.write(wrapped);
+			}
+		};
+	}
+
+	/***
+	 * Writes the titles followed by the rows between a start row and an end row, 
+	 * in the same format as dataToString. Nothing is left in the buffer afterwards.
+	 * 
+	 * @param columnNames the titles
+	 * @param storage the storage holding the values
+	 * @param startRow the first row to write
+	 * @param endRow the row after the last row to write
+	 * @throws IOException if the text can not be written
+	 */
+	public void write(String[] columnNames, CSVStorage storage, int startRow, int endRow) throws IOException {
+		for (int j = 0; j < columnNames.length; j++) {
+			if (j > 0) writeSeparator();
+			flush();
+			long writeStart = System.nanoTime();
+			sink.writeText(columnNames[j]);
+			ioNanos += System.nanoTime() - writeStart;
+			numBytesWritten += columnNames[j].length();
+		}
+
+		int numColumns = storage.getNumColumns();
+		boolean[] floatColumns = new boolean[numColumns];
+		for (int j = 0; j < numColumns; j++)
+			floatColumns[j] = storage.isFloatColumn(j);
+
+		for (int i = startRow; i < endRow; i++) {
+			if (count + 1 > buffer.length) flush();
+			buffer[count++] = '\n';
+
+			for (int j = 0; j < numColumns; j++) {
+				if (j > 0) writeSeparator();
+				if (count + MAX_VALUE_LENGTH > buffer.length) flush();
+				if (floatColumns[j]) count = formatFloat((float) storage.get(i, j), buffer, count);
+				else count = formatDouble(storage.get(i, j), buffer, count);
+			}
+		}
+
+		flush();
+	}
+
+	/***
+	 * Writes the ", " between two values
+	 */
+	private void writeSeparator() throws IOException {
+		if (count + 2 > buffer.length) flush();
+		buffer[count++] = ',';
+		buffer[count++] = ' ';
+	}
+
+	/***
+	 * Hands everything in the buffer to the sink
+	 * 
+	 * @throws IOException if the text can not be written
+	 */
+	public void flush() throws IOException {
+		if (count > 0) {
+			long writeStart = System.nanoTime();
+			sink.write(buffer, count);
+			ioNanos += System.nanoTime() - writeStart;
+			numBytesWritten += count;
+		}
+		count = 0;
+	}
+
+	/***
+	 * Returns how many bytes have been handed to the sink, counting a character 
+	 * of a title as one byte
+	 * 
+	 * @return the number of bytes written
+	 */
+	public long getNumBytesWritten() {
+		return numBytesWritten;
+	}
+
+	/***
+	 * Returns how long the sink has spent writing
+	 * 
+	 * @return the time in nanoseconds
+	 */
+	public long getIONanos() {
+		return ioNanos;
+	}
+
+	/***
+	 * Writes a double as text into a buffer. Values that are whole numbers or 
+	 * that have a short exact decimal form between 0.001 and 10^7 are written 
+	 * directly with the fewest digits that read back as the same double. 
+	 * Anything else uses Double.toString.
+	 * 
+	 * @param value the value to write
+	 * @param bytes the buffer, with at least MAX_VALUE_LENGTH bytes free
+	 * @param position where to start writing
+	 * @return the position after the last byte written
+	 */
+	public static int formatDouble(double value, byte[] bytes, int position) {
+		double abs = Math.abs(value);
+
+		if (abs >= 1e-3 && abs < 1e7) {
+			for (int numDecimals = 0; numDecimals < POWERS_OF_TEN.length; numDecimals++) {
+				double scaled = Math.rint(abs * POWERS_OF_TEN[numDecimals]);
+				if (scaled >= MAX_EXACT_LONG) break;
+
+				// the division is exact enough to tell whether these digits read back as the value
+				if (scaled / POWERS_OF_TEN[numDecimals] == abs) {
+					if (value < 0) bytes[position++] = '-';
+					return writeDecimal((long) scaled, numDecimals, bytes, position);
+				}
+			}
+		} else if (value == 0) {
+			if (1 / value < 0) bytes[position++] = '-';
+			return writeDecimal(0, 0, bytes, position);
+		}
+
+		String text = Double.toString(value);
+		for (int i = 0; i < text.length(); i++)
+			bytes[position++] = (byte) text.charAt(i);
+		return position;
+	}
+
+	/***
+	 * Writes a float as text into a buffer with the fewest digits that read back 
+	 * as the same float, so a value stored as 0.1f is written as 0.1 and not as 
+	 * the double it widens to. Values outside 0.001 to 10^7 use Float.toString.
+	 * 
+	 * @param value the value to write
+	 * @param bytes the buffer, with at least MAX_VALUE_LENGTH bytes free
+	 * @param position where to start writing
+	 * @return the position after the last byte written
+	 */
+	public static int formatFloat(float value, byte[] bytes, int position) {
+		float abs = Math.abs(value);
+
+		if (abs >= 1e-3f && abs < 1e7f) {
+			for (int numDecimals = 0; numDecimals < POWERS_OF_TEN.length; numDecimals++) {
+				double scaled = Math.rint(abs * (double) POWERS_OF_TEN[numDecimals]);
+				if (scaled >= MAX_EXACT_LONG) break;
+
+				// a decimal whose closest double is exactly halfway between two floats 
+				// may round either way when parsed, so it is not trusted
+				double decimal = scaled / POWERS_OF_TEN[numDecimals];
+				double halfUlp = Math.ulp(decimal < abs ? Math.nextDown(abs) : abs) / 2.0;
+				if ((float) decimal == abs && Math.abs(decimal - abs) != halfUlp) {
+					if (value < 0) bytes[position++] = '-';
+					return writeDecimal((long) scaled, numDecimals, bytes, position);
+				}
+			}
+		} else if (value == 0) {
+			if (1 / value < 0) bytes[position++] = '-';
+			return writeDecimal(0, 0, bytes, position);
+		}
+
+		String text = Float.toString(value);
+		for (int i = 0; i < text.length(); i++)
+			bytes[position++] = (byte) text.charAt(i);
+		return position;
+	}
+
+	/***
+	 * Writes digits with a decimal point placed before the last numDecimals digits. 
+	 * At least one digit is written after the point.
+	 * 
+	 * @param digits the digits to write
+	 * @param numDecimals how many of the digits come after the point
+	 * @param bytes the buffer
+	 * @param position where to start writing
+	 * @return the position after the last byte written
+	 */
+	private static int writeDecimal(long digits, int numDecimals, byte[] bytes, int position) {
+		long whole = digits / POWERS_OF_TEN[numDecimals];
+		long fraction = digits % POWERS_OF_TEN[numDecimals];
+
+		position = writeDigits(whole, 1, bytes, position);
+		bytes[position++] = '.';
+		return writeDigits(fraction, Math.max(numDecimals, 1), bytes, position);
+	}
+
+	/***
+	 * Writes a non-negative number padded with zeros on the left
+	 * 
+	 * @param number the number to write
+	 * @param minDigits the fewest digits to write
+	 * @param bytes the buffer
+	 * @param position where to start writing
+	 * @return the position after the last byte written
+	 */
+	private static int writeDigits(long number, int minDigits, byte[] bytes, int position) {
+		int numDigits = 1;
+		while (numDigits < POWERS_OF_TEN.length && number >= POWERS_OF_TEN[numDigits]) numDigits++;
+		numDigits = Math.max(numDigits, minDigits);
+
+		for (int i = position + numDigits - 1; i >= position; i--) {
+			bytes[i] = (byte) ('0' + number % 10);
+			number /= 10;
+		}
+
+		return position + numDigits;
+	}
+}
@@ -0,0 +1,270 @@
+package csvhelper;
+
+import java.nio.DoubleBuffer;
+
+/***
+ * The count, sum, minimum, maximum, mean and variance of the values in a column. 
+ * The loop keeps four independent accumulators so the JIT can pipeline and 
+ * unroll them instead of waiting on one running total. The minimum and maximum 
+ * skip NaN values, while the sum, mean and variance become NaN.
+ *
+ */
+public class ColumnStats {
+	private final int count;
+	private final double sum;
+	private final double min;
+	private final double max;
+	private final double variance;
+
+	/***
+	 * Creates the statistics of a column
+	 * 
+	 * @param count the number of values
+	 * @param sum the sum of the values
+	 * @param min the smallest value
+	 * @param max the largest value
+	 * @param variance the population variance of the values
+	 */
+	ColumnStats(int count, double sum, double min, double max, double variance) {
+		this.count = count;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+		this.variance = variance;
+	}
+
+	/***
+	 * Computes the statistics of the first values in a buffer, reading them in place. 
+	 * The mean is found first and the variance is then summed from the distances to 
+	 * it, which keeps it accurate for values like timestamps that are large compared 
+	 * to their spread. Wrap an array with DoubleBuffer.wrap to use it here.
+	 * 
+	 * @param values the buffer holding the values
+	 * @param count the number of values
+	 * @return the statistics of those values
+	 */
+	public static ColumnStats of(DoubleBuffer values, int count) {
+		if (count <= 0) return new ColumnStats(0, 0, Double.NaN, Double.NaN, Double.NaN);
+
+		double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		double min0 = Double.POSITIVE_INFINITY, min1 = min0, min2 = min0, min3 = min0;
+		double max0 = Double.NEGATIVE_INFINITY, max1 = max0, max2 = max0, max3 = max0;
+
+		int i = 0;
+		for (; i + 3 < count; i += 4) {
+			double v0 = values.get(i), v1 = values.get(i+1), v2 = values.get(i+2), v3 = values.get(i+3);
+			sum0 += v0; sum1 += v1; sum2 += v2; sum3 += v3;
+			min0 = v0 < min0 ? v0 : min0; min1 = v1 < min1 ? v1 : min1; min2 = v2 < min2 ? v2 : min2; min3 = v3 < min3 ? v3 : min3;
+			max0 = v0 > max0 ? v0 : max0; max1 = v1 > max1 ? v1 : max1; max2 = v2 > max2 ? v2 : max2; max3 = v3 > max3 ? v3 : max3;
+		}
+		for (; i < count; i++) {
+			double v = values.get(i);
+			sum0 += v;
+			min0 = v < min0 ? v : min0;
+			max0 = v > max0 ? v : max0;
+		}
+
+		double sum = (sum0 + sum1) + (sum2 + sum3);
+		double mean = sum / count;
+
+		double squares0 = 0, squares1 = 0, squares2 = 0, squares3 = 0;
+		i = 0;
+		for (; i + 3 < count; i += 4) {
+			double d0 = values.get(i) - mean, d1 = values.get(i+1) - mean;
+			double d2 = values.get(i+2) - mean, d3 = values.get(i+3) - mean;
+			squares0 += d0 * d0; squares1 += d1 * d1; squares2 += d2 * d2; squares3 += d3 * d3;
+		}
+		for (; i < count; i++) {
+			double d = values.get(i) - mean;
+			squares0 += d * d;
+		}
+
+		return create(count, sum, Math.min(Math.min(min0, min1), Math.min(min2, min3)), 
+				Math.max(Math.max(max0, max1), Math.max(max2, max3)), (squares0 + squares1) + (squares2 + squares3));
+	}
+
+	/***
+	 * Computes the statistics of the first values in a float[] column without 
+	 * widening it into a double[] first. The accumulators are doubles, so the 
+	 * results match the ones computed from the widened values.
+	 * 
+	 * @param values the array holding the values
+	 * @param count the number of values
+	 * @return the statistics of those values
+	 */
+	public static ColumnStats of(float[] values, int count) {
+		if (count <= 0) return new ColumnStats(0, 0, Double.NaN, Double.NaN, Double.NaN);
+
+		double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		double min0 = Double.POSITIVE_INFINITY, min1 = min0, min2 = min0, min3 = min0;
+		double max0 = Double.NEGATIVE_INFINITY, max1 = max0, max2 = max0, max3 = max0;
+
+		int i = 0;
+		for (; i + 3 < count; i += 4) {
+			double v0 = values[i], v1 = values[i+1], v2 = values[i+2], v3 = values[i+3];
+			sum0 += v0; sum1 += v1; sum2 += v2; sum3 += v3;
+			min0 = v0 < min0 ? v0 : min0; min1 = v1 < min1 ? v1 : min1; min2 = v2 < min2 ? v2 : min2; min3 = v3 < min3 ? v3 : min3;
+			max0 = v0 > max0 ? v0 : max0; max1 = v1 > max1 ? v1 : max1; max2 = v2 > max2 ? v2 : max2; max3 = v3 > max3 ? v3 : max3;
+		}
+		for (; i < count; i++) {
+			double v = values[i];
+			sum0 += v;
+			min0 = v < min0 ? v : min0;
+			max0 = v > max0 ? v : max0;
+		}
+
+		double sum = (sum0 + sum1) + (sum2 + sum3);
+		double mean = sum / count;
+
+		double squares0 = 0, squares1 = 0, squares2 = 0, squares3 = 0;
+		i = 0;
+		for (; i + 3 < count; i += 4) {
+			double d0 = values[i] - mean, d1 = values[i+1] - mean;
+			double d2 = values[i+2] - mean, d3 = values[i+3] - mean;
+			squares0 += d0 * d0; squares1 += d1 * d1; squares2 += d2 * d2; squares3 += d3 * d3;
+		}
+		for (; i < count; i++) {
+			double d = values[i] - mean;
+			squares0 += d * d;
+		}
+
+		return create(count, sum, Math.min(Math.min(min0, min1), Math.min(min2, min3)), 
+				Math.max(Math.max(max0, max1), Math.max(max2, max3)), (squares0 + squares1) + (squares2 + squares3));
+	}
+
+	/***
+	 * Computes the statistics of one column of the first rows, reading each row 
+	 * array in place instead of copying the column out
+	 * 
+	 * @param rows the row arrays
+	 * @param columnIndex the index of the column in each row
+	 * @param count the number of rows
+	 * @return the statistics of the column
+	 */
+	public static ColumnStats of(double[][] rows, int columnIndex, int count) {
+		if (count <= 0) return new ColumnStats(0, 0, Double.NaN, Double.NaN, Double.NaN);
+
+		double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		double min0 = Double.POSITIVE_INFINITY, min1 = min0, min2 = min0, min3 = min0;
+		double max0 = Double.NEGATIVE_INFINITY, max1 = max0, max2 = max0, max3 = max0;
+
+		int i = 0;
+		for (; i + 3 < count; i += 4) {
+			double v0 = rows[i][columnIndex], v1 = rows[i+1][columnIndex];
+			double v2 = rows[i+2][columnIndex], v3 = rows[i+3][columnIndex];
+			sum0 += v0; sum1 += v1; sum2 += v2; sum3 += v3;
+			min0 = v0 < min0 ? v0 : min0; min1 = v1 < min1 ? v1 : min1; min2 = v2 < min2 ? v2 : min2; min3 = v3 < min3 ? v3 : min3;
+			max0 = v0 > max0 ? v0 : max0; max1 = v1 > max1 ? v1 : max1; max2 = v2 > max2 ? v2 : max2; max3 = v3 > max3 ? v3 : max3;
+		}
+		for (; i < count; i++) {
+			double v = rows[i][columnIndex];
+			sum0 += v;
+			min0 = v < min0 ? v : min0;
+			max0 = v > max0 ? v : max0;
+		}
+
+		double sum = (sum0 + sum1) + (sum2 + sum3);
+		double mean = sum / count;
+
+		double squares0 = 0, squares1 = 0, squares2 = 0, squares3 = 0;
+		i = 0;
+		for (; i + 3 < count; i += 4) {
+			double d0 = rows[i][columnIndex] - mean, d1 = rows[i+1][columnIndex] - mean;
+			double d2 = rows[i+2][columnIndex] - mean, d3 = rows[i+3][columnIndex] - mean;
+			squares0 += d0 * d0; squares1 += d1 * d1; squares2 += d2 * d2; squares3 += d3 * d3;
+		}
+		for (; i < count; i++) {
+			double d = rows[i][columnIndex] - mean;
+			squares0 += d * d;
+		}
+
+		return create(count, sum, Math.min(Math.min(min0, min1), Math.min(min2, min3)), 
+				Math.max(Math.max(max0, max1), Math.max(max2, max3)), (squares0 + squares1) + (squares2 + squares3));
+	}
+
+	/***
+	 * Creates the statistics from the combined accumulators
+	 * 
+	 * @param count the number of values
+	 * @param sum the sum of the values
+	 * @param min the smallest value that is not NaN
+	 * @param max the largest value that is not NaN
+	 * @param squares the sum of the squared distances from the mean
+	 * @return the statistics
+	 */
+	private static ColumnStats create(int count, double sum, double min, double max, double squares) {
+		// every value was NaN
+		if (min > max) min = max = Double.NaN;
+
+		return new ColumnStats(count, sum, min, max, squares / count);
+	}
+
+	/***
+	 * Returns the number of values
+	 * 
+	 * @return the number of values
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/***
+	 * Returns the sum of the values
+	 * 
+	 * @return the sum of the values
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/***
+	 * Returns the smallest value that is not NaN, or NaN if there is none
+	 * 
+	 * @return the smallest value
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/***
+	 * Returns the largest value that is not NaN, or NaN if there is none
+	 * 
+	 * @return the largest value
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/***
+	 * Returns the mean of the values, or NaN if there are no values
+	 * 
+	 * @return the mean of the values
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	/***
+	 * Returns the population variance of the values, or NaN if there are no values
+	 * 
+	 * @return the variance of the values
+	 */
+	public double getVariance() {
+		return variance;
+	}
+
+	/***
+	 * Returns the population standard deviation of the values
+	 * 
+	 * @return the standard deviation of the values
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(variance);
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max 
+				+ ", mean=" + getMean() + ", variance=" + variance;
+	}
+}
@@ -0,0 +1,104 @@
+package csvhelper;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/***
+ * Stores the values of a CSVData object as one contiguous double[] per column, 
+ * so column scans and column swaps do not copy anything
+ *
+ */
+public class ColumnStorage extends CSVStorage {
+	private double[][] columns;
+
+	/***
+	 * Creates empty storage with space for a number of rows
+	 * 
+	 * @param numColumns the number of columns
+	 * @param capacity the number of rows there is space for
+	 */
+	public ColumnStorage(int numColumns, int capacity) {
+		this.numColumns = numColumns;
+		this.columns = new double[numColumns][capacity];
+	}
+
+	/***
+	 * Creates storage that uses the columns given without copying them
+	 * 
+	 * @param columns the columns, each with at least numRows values
+	 * @param numRows the number of rows
+	 */
+	public ColumnStorage(double[][] columns, int numRows) {
+		this.columns = columns;
+		this.numColumns = columns.length;
+		this.numRows = numRows;
+	}
+
+	@Override
+	public double get(int rowIndex, int columnIndex) {
+		return columns[columnIndex][rowIndex];
+	}
+
+	@Override
+	public void set(int rowIndex, int columnIndex, double value) {
+		columns[columnIndex][rowIndex] = value;
+	}
+
+	/***
+	 * Returns a copy of the row, because the values of a row are not next to 
+	 * each other in this layout
+	 */
+	@Override
+	public double[] getRow(int rowIndex) {
+		double[] rowValues = new double[numColumns];
+
+		for (int j = 0; j < numColumns; j++)
+			rowValues[j] = columns[j][rowIndex];
+
+		return rowValues;
+	}
+
+	@Override
+	public void setRow(int rowIndex, double[] rowValues) {
+		copyRow(rowIndex, rowValues);
+	}
+
+	@Override
+	public double[] getColumn(int columnIndex) {
+		return Arrays.copyOf(columns[columnIndex], numRows);
+	}
+
+	@Override
+	public void setColumn(int columnIndex, double[] columnValues) {
+		System.arraycopy(columnValues, 0, columns[columnIndex], 0, numRows);
+	}
+
+	@Override
+	public DoubleBuffer getColumnView(int columnIndex) {
+		return DoubleBuffer.wrap(columns[columnIndex], 0, numRows).slice().asReadOnlyBuffer();
+	}
+
+	@Override
+	public void swapColumns(int index1, int index2) {
+		double[] temp = columns[index1];
+		columns[index1] = columns[index2];
+		columns[index2] = temp;
+	}
+
+	@Override
+	public void copyRow(int rowIndex, double[] rowValues) {
+		for (int j = 0; j < numColumns; j++)
+			columns[j][rowIndex] = rowValues[j];
+	}
+
+	@Override
+	protected int getCapacity() {
+		return numColumns == 0 ? Integer.MAX_VALUE : columns[0].length;
+	}
+
+	@Override
+	protected void resize(int capacity) {
+		for (int j = 0; j < numColumns; j++)
+			columns[j] = Arrays.copyOf(columns[j], capacity);
+	}
+}
@@ -0,0 +1,254 @@
+package csvhelper;
+
+import java.util.Arrays;
+
+/***
+ * A CSVData object that many threads can read while others change it. Every
+ * change builds a new version of the data and publishes it through a volatile
+ * reference, so readers never lock and always see column names and values
+ * that belong together. Only the columns a change touches are copied, the
+ * rest are shared between versions. Changes are made one at a time, but they
+ * never wait for readers.
+ *
+ * Each method reads the newest version when it is called. Use snapshot to make
+ * several reads from the same version.
+ *
+ */
+public class ConcurrentCSVData {
+	private final Object writeLock = new Object();
+	private volatile Version current;
+
+	/***
+	 * One version of the data. Nothing in it changes once it is published.
+	 */
+	private static class Version {
+		final String[] columnNames;
+		final double[][] columns;
+		final int numRows;
+		final CSVView view;
+
+		Version(String[] columnNames, double[][] columns, int numRows) {
+			this.columnNames = columnNames;
+			this.columns = columns;
+			this.numRows = numRows;
+
+			int[] columnIndexes = new int[columns.length];
+			for (int j = 0; j < columnIndexes.length; j++)
+				columnIndexes[j] = j;
+			this.view = new CSVView(new ColumnStorage(columns, numRows), columnNames, columnIndexes, null, 0, numRows);
+		}
+	}
+
+	/***
+	 * Creates a concurrent copy of a CSVData object. Later changes to either one
+	 * are not seen by the other.
+	 *
+	 * @param data the data to copy
+	 */
+	public ConcurrentCSVData(CSVData data) {
+		String[] columnNames = data.getColumnTitles().clone();
+		double[][] columns = new double[columnNames.length][];
+
+		for (int j = 0; j < columns.length; j++)
+			columns[j] = data.getColumn(j);
+
+		this.current = new Version(columnNames, columns, data.getNumRows());
+	}
+
+	/***
+	 * Returns the newest version of the data as a view that never changes, no
+	 * matter what is changed afterwards
+	 *
+	 * @return a view of the newest version
+	 */
+	public CSVView snapshot() {
+		return current.view;
+	}
+
+	/***
+	 * Returns the number of rows
+	 *
+	 * @return the number of rows
+	 */
+	public int getNumRows() {
+		return current.numRows;
+	}
+
+	/***
+	 * Returns the column titles
+	 *
+	 * @return the column titles
+	 */
+	public String[] getColumnTitles() {
+		return current.columnNames.clone();
+	}
+
+	/***
+	 * Finds the index for the column specified by name.
+	 * Returns -1 if the name is invalid
+	 *
+	 * @param colName the name of the column
+	 * @return the column index
+	 */
+	public int getColumnIndex(String colName) {
+		return current.view.getColumnIndex(colName);
+	}
+
+	/***
+	 * Returns one value
+	 *
+	 * @param rowIndex the row index
+	 * @param colIndex the column index
+	 * @return the value at that point
+	 */
+	public double getValue(int rowIndex, int colIndex) {
+		return current.columns[colIndex][rowIndex];
+	}
+
+	/***
+	 * Returns all the values in a column as a new array
+	 *
+	 * @param columnIndex the index of the column
+	 * @return all the values in a column
+	 */
+	public double[] getColumn(int columnIndex) {
+		Version version = current;
+
+		return Arrays.copyOf(version.columns[columnIndex], version.numRows);
+	}
+
+	/***
+	 * Returns all the values in a column as a new array
+	 *
+	 * @param name the name of the column
+	 * @return all the values in a column
+	 */
+	public double[] getColumn(String name) {
+		Version version = current;
+
+		return Arrays.copyOf(version.columns[version.view.getColumnIndex(name)], version.numRows);
+	}
+
+	/***
+	 * Sets a value at a specific spot. The column is copied, so set whole columns
+	 * with setColumn when changing many values.
+	 *
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the value to save
+	 */
+	public void setValue(int rowIndex, int columnIndex, double value) {
+		synchronized (writeLock) {
+			Version version = current;
+			double[][] columns = version.columns.clone();
+
+			columns[columnIndex] = Arrays.copyOf(columns[columnIndex], version.numRows);
+			columns[columnIndex][rowIndex] = value;
+
+			current = new Version(version.columnNames, columns, version.numRows);
+		}
+	}
+
+	/***
+	 * Sets a full row. Every column is copied.
+	 *
+	 * @param rowIndex the index for the row to replace
+	 * @param rowValues the values to save into the row
+	 */
+	public void setRow(int rowIndex, double[] rowValues) {
+		synchronized (writeLock) {
+			Version version = current;
+			double[][] columns = new double[version.columns.length][];
+
+			for (int j = 0; j < columns.length; j++) {
+				columns[j] = Arrays.copyOf(version.columns[j], version.numRows);
+				columns[j][rowIndex] = rowValues[j];
+			}
+
+			current = new Version(version.columnNames, columns, version.numRows);
+		}
+	}
+
+	/***
+	 * Sets a full column by copying the values
+	 *
+	 * @param columnIndex the index of the column
+	 * @param columnValues the values to store in the column
+	 */
+	public void setColumn(int columnIndex, double[] columnValues) {
+		double[] column = Arrays.copyOf(columnValues, columnValues.length);
+
+		synchronized (writeLock) {
+			Version version = current;
+			if (column.length < version.numRows)
+				throw new IllegalArgumentException("The column has " + column.length + " values but there are "
+						+ version.numRows + " rows");
+
+			double[][] columns = version.columns.clone();
+			columns[columnIndex] = column;
+
+			current = new Version(version.columnNames, columns, version.numRows);
+		}
+	}
+
+	/***
+	 * Sets a full column by copying the values
+	 *
+	 * @param colName the name of the column to set
+	 * @param columnValues the values to store in the column
+	 */
+	public void setColumn(String colName, double[] columnValues) {
+		synchronized (writeLock) {
+			setColumn(getColumnIndex(colName), columnValues);
+		}
+	}
+
+	/***
+	 * Swaps two columns with the indexes specified. The titles and the values
+	 * are swapped in the same version, so no reader sees one without the other.
+	 *
+	 * @param index1 the index for the 1st column to be swapped
+	 * @param index2 the index for the 2nd column to be swapped
+	 */
+	public void swapColumns(int index1, int index2) {
+		synchronized (writeLock) {
+			Version version = current;
+			String[] columnNames = version.columnNames.clone();
+			double[][] columns = version.columns.clone();
+
+			String name = columnNames[index1];
+			columnNames[index1] = columnNames[index2];
+			columnNames[index2] = name;
+
+			double[] column = columns[index1];
+			columns[index1] = columns[index2];
+			columns[index2] = column;
+
+			current = new Version(columnNames, columns, version.numRows);
+		}
+	}
+
+	/***
+	 * Makes the first column the time since the first row and renames it
+	 * "Elapsed Time", the same as CSVData.correctTime, in one version
+	 */
+	public void correctTime() {
+		synchronized (writeLock) {
+			Version version = current;
+			if (version.columns.length == 0) return;
+
+			String[] columnNames = version.columnNames.clone();
+			double[][] columns = version.columns.clone();
+			double[] time = Arrays.copyOf(columns[0], version.numRows);
+
+			double startTime = version.numRows == 0 ? 0 : time[0];
+			for (int i = 0; i < time.length; i++)
+				time[i] -= startTime;
+
+			columns[0] = time;
+			columnNames[0] = "Elapsed Time";
+
+			current = new Version(columnNames, columns, version.numRows);
+		}
+	}
+}
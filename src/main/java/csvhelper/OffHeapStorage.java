@@ -0,0 +1,225 @@
+package csvhelper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/***
+ * Stores the values of a CSVData object outside the Java heap, one direct 
+ * buffer per column in little-endian order, so large datasets do not grow 
+ * the heap or slow down garbage collection. The memory the storage holds is 
+ * freed as soon as it is closed. The buffers left behind when it grows, and the 
+ * mapped columns of a snapshot, are freed by the garbage collector instead, 
+ * once no view from getColumnView still reads them.
+ *
+ */
+public class OffHeapStorage extends CSVStorage {
+	/** the most rows a column can hold, since a direct buffer holds at most Integer.MAX_VALUE bytes */
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE / Double.BYTES;
+
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafe = theUnsafe.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// the buffers are then freed by the garbage collector instead
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private ByteBuffer[] buffers;
+	private DoubleBuffer[] columns;
+	private int capacity;
+	// false while the buffers are mappings someone else made, such as a snapshot file
+	private boolean allocated;
+
+	/***
+	 * Creates empty storage with space for a number of rows
+	 * 
+	 * @param numColumns the number of columns
+	 * @param capacity the number of rows there is space for
+	 */
+	public OffHeapStorage(int numColumns, int capacity) {
+		this.numColumns = numColumns;
+		this.buffers = new ByteBuffer[numColumns];
+		this.columns = new DoubleBuffer[numColumns];
+		allocate(capacity);
+	}
+
+	/***
+	 * Creates storage over buffers that already hold the values of each column, 
+	 * such as the memory mapped columns of a snapshot
+	 * 
+	 * @param buffers one buffer per column holding numRows little-endian doubles
+	 * @param numRows the number of rows
+	 */
+	public OffHeapStorage(ByteBuffer[] buffers, int numRows) {
+		this.numColumns = buffers.length;
+		this.numRows = numRows;
+		this.capacity = numRows;
+		this.buffers = buffers;
+		this.columns = new DoubleBuffer[numColumns];
+
+		for (int j = 0; j < numColumns; j++)
+			columns[j] = buffers[j].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+	}
+
+	@Override
+	public double get(int rowIndex, int columnIndex) {
+		return columns[columnIndex].get(rowIndex);
+	}
+
+	@Override
+	public void set(int rowIndex, int columnIndex, double value) {
+		columns[columnIndex].put(rowIndex, value);
+	}
+
+	/***
+	 * Returns a copy of the row, because the values live outside the heap
+	 */
+	@Override
+	public double[] getRow(int rowIndex) {
+		double[] rowValues = new double[numColumns];
+
+		for (int j = 0; j < numColumns; j++)
+			rowValues[j] = columns[j].get(rowIndex);
+
+		return rowValues;
+	}
+
+	@Override
+	public void setRow(int rowIndex, double[] rowValues) {
+		copyRow(rowIndex, rowValues);
+	}
+
+	@Override
+	public double[] getColumn(int columnIndex) {
+		double[] columnValues = new double[numRows];
+		columns[columnIndex].get(0, columnValues);
+		return columnValues;
+	}
+
+	@Override
+	public void setColumn(int columnIndex, double[] columnValues) {
+		columns[columnIndex].put(0, columnValues, 0, numRows);
+	}
+
+	/***
+	 * Returns a read-only buffer over the stored column. It stays readable when 
+	 * the storage grows, though it no longer sees later changes, and must not be 
+	 * used after the storage is closed.
+	 */
+	@Override
+	public DoubleBuffer getColumnView(int columnIndex) {
+		return columns[columnIndex].slice(0, numRows).asReadOnlyBuffer();
+	}
+
+	@Override
+	public void swapColumns(int index1, int index2) {
+		ByteBuffer tempBuffer = buffers[index1];
+		buffers[index1] = buffers[index2];
+		buffers[index2] = tempBuffer;
+
+		DoubleBuffer temp = columns[index1];
+		columns[index1] = columns[index2];
+		columns[index2] = temp;
+	}
+
+	@Override
+	public void copyRow(int rowIndex, double[] rowValues) {
+		for (int j = 0; j < numColumns; j++)
+			columns[j].put(rowIndex, rowValues[j]);
+	}
+
+	/***
+	 * Frees the memory of every column the storage allocated. Mapped columns are 
+	 * not unmapped, because a view may still read them. The storage can not be 
+	 * used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (buffers == null) return;
+
+		if (allocated) {
+			for (ByteBuffer buffer : buffers)
+				free(buffer);
+		}
+
+		buffers = null;
+		columns = null;
+	}
+
+	@Override
+	protected int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	protected void resize(int capacity) {
+		// checked before the old buffers are replaced, so the storage stays usable
+		checkCapacity(capacity);
+		ByteBuffer[] oldBuffers = buffers;
+		int numBytes = Math.min(numRows, capacity) * Double.BYTES;
+
+		buffers = new ByteBuffer[numColumns];
+		columns = new DoubleBuffer[numColumns];
+		allocate(capacity);
+
+		// the old buffers are left to the garbage collector, since views may still read them
+		for (int j = 0; j < numColumns; j++)
+			buffers[j].put(0, oldBuffers[j], 0, numBytes);
+	}
+
+	/***
+	 * Allocates new buffers for every column
+	 * 
+	 * @param capacity the number of rows there is space for
+	 */
+	private void allocate(int capacity) {
+		checkCapacity(capacity);
+		this.capacity = capacity;
+		this.allocated = true;
+
+		for (int j = 0; j < numColumns; j++) {
+			buffers[j] = ByteBuffer.allocateDirect(capacity * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			columns[j] = buffers[j].asDoubleBuffer();
+		}
+	}
+
+	/***
+	 * Checks that a column can hold a number of rows
+	 * 
+	 * @param capacity the number of rows there is to be space for
+	 * @throws IllegalStateException if a direct buffer can not hold that many doubles
+	 */
+	private static void checkCapacity(int capacity) {
+		if (capacity < 0 || capacity > MAX_CAPACITY)
+			throw new IllegalStateException("An off-heap column can not hold more than " + MAX_CAPACITY + " rows");
+	}
+
+	/***
+	 * Frees a direct buffer right away instead of waiting for the garbage collector
+	 * 
+	 * @param buffer the buffer to free
+	 */
+	private static void free(ByteBuffer buffer) {
+		if (INVOKE_CLEANER == null) return;
+
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, buffer);
+		} catch (ReflectiveOperationException e) {
+			// the buffer is then freed by the garbage collector instead
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package csvhelper;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/***
+ * Stores the values of a CSVData object as one double[] per row
+ *
+ */
+public class RowStorage extends CSVStorage {
+	private double[][] data;
+
+	/***
+	 * Creates empty storage with space for a number of rows
+	 * 
+	 * @param numColumns the number of columns
+	 * @param capacity the number of rows there is space for
+	 */
+	public RowStorage(int numColumns, int capacity) {
+		this.numColumns = numColumns;
+		this.data = new double[capacity][];
+	}
+
+	/***
+	 * Creates storage that uses the rows given without copying them
+	 * 
+	 * @param data the rows
+	 */
+	public RowStorage(double[][] data) {
+		this.data = data;
+		this.numRows = data.length;
+		this.numColumns = data.length == 0 ? 0 : data[0].length;
+	}
+
+	@Override
+	public double get(int rowIndex, int columnIndex) {
+		return data[rowIndex][columnIndex];
+	}
+
+	@Override
+	public void set(int rowIndex, int columnIndex, double value) {
+		data[rowIndex][columnIndex] = value;
+	}
+
+	@Override
+	public double[] getRow(int rowIndex) {
+		return data[rowIndex];
+	}
+
+	@Override
+	public void setRow(int rowIndex, double[] rowValues) {
+		data[rowIndex] = rowValues;
+	}
+
+	/***
+	 * Returns a read-only buffer over a copy of the column, because the values 
+	 * of a column are not next to each other in this layout
+	 */
+	@Override
+	public DoubleBuffer getColumnView(int columnIndex) {
+		return DoubleBuffer.wrap(getColumn(columnIndex)).asReadOnlyBuffer();
+	}
+
+	/***
+	 * Computes the statistics of a column by reading it from each row, without 
+	 * copying it out first
+	 */
+	@Override
+	public ColumnStats getColumnStats(int columnIndex) {
+		return ColumnStats.of(data, columnIndex, numRows);
+	}
+
+	/***
+	 * Puts the rows in a new order by moving the row arrays, without copying any values
+	 */
+	@Override
+	public void permuteRows(int[] order) {
+		double[][] permuted = new double[data.length][];
+
+		for (int i = 0; i < numRows; i++)
+			permuted[i] = data[order[i]];
+
+		data = permuted;
+	}
+
+	@Override
+	public void swapColumns(int index1, int index2) {
+		for (int i = 0; i < numRows; i++) {
+			double temp = data[i][index1];
+			data[i][index1] = data[i][index2];
+			data[i][index2] = temp;
+		}
+	}
+
+	@Override
+	public void copyRow(int rowIndex, double[] rowValues) {
+		data[rowIndex] = Arrays.copyOf(rowValues, numColumns);
+	}
+
+	@Override
+	protected int getCapacity() {
+		return data.length;
+	}
+
+	@Override
+	protected void resize(int capacity) {
+		data = Arrays.copyOf(data, capacity);
+	}
+}
@@ -0,0 +1,25 @@
+package csvhelper;
+
+/***
+ * Receives the rows of a file one at a time while CSVData.scan reads it, 
+ * so values can be aggregated or filtered without storing the whole file
+ *
+ */
+public interface RowVisitor {
+	/***
+	 * Called once with the names of the columns, before the first row
+	 * 
+	 * @param columnNames the names of the columns in the order of the values in a row
+	 */
+	default void start(String[] columnNames) {
+	}
+
+	/***
+	 * Called for every row of the file in order. The same array is reused for 
+	 * every row, so copy it to keep the values after this returns.
+	 * 
+	 * @param rowIndex the index of the row
+	 * @param row the values in the row
+	 */
+	void visitRow(int rowIndex, double[] row);
+}
@@ -0,0 +1,80 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVBatchLoaderTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void loadsEveryFileAndReportsFailuresPerFile() throws IOException {
+		Files.writeString(directory.resolve("a.csv"), "time,value\n1,10\n2,20\n");
+		Files.writeString(directory.resolve("b.csv"), "time,value\n1,x\n");
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(directory.resolve("c.csv.gz")))) {
+			out.write("time,value\n3,30\n".getBytes(StandardCharsets.US_ASCII));
+		}
+
+		Map<String, CSVData> loaded = new ConcurrentHashMap<>();
+		Map<String, Throwable> failed = new ConcurrentHashMap<>();
+		new CSVBatchLoader(0, new CSVOptions()).setParseThreads(2).loadDirectory(directory.toString(),
+				new CSVBatchLoader.Listener() {
+					@Override
+					public void loaded(String filepath, CSVData data) {
+						loaded.put(Path.of(filepath).getFileName().toString(), data);
+					}
+
+					@Override
+					public void failed(String filepath, Throwable error) {
+						failed.put(Path.of(filepath).getFileName().toString(), error);
+					}
+				});
+
+		assertEquals(2, loaded.size());
+		assertArrayEquals(new double[] {10, 20}, loaded.get("a.csv").getColumn(1));
+		assertArrayEquals(new double[] {30}, loaded.get("c.csv.gz").getColumn(1));
+		assertTrue(failed.get("b.csv") instanceof NumberFormatException);
+	}
+
+	@Test
+	void loadAllKeepsTheOrderWithFewFilesInFlight() throws IOException {
+		List<String> filepaths = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			Path file = directory.resolve("file" + i + ".csv");
+			Files.writeString(file, "time,value\n1," + i + "\n");
+			filepaths.add(file.toString());
+		}
+
+		CSVOptions options = new CSVOptions().setMemoryMapped(true);
+		List<CSVData> loaded = new CSVBatchLoader(0, options).setMaxFilesInFlight(3).setParseThreads(2).loadAll(filepaths);
+
+		assertEquals(20, loaded.size());
+		for (int i = 0; i < 20; i++)
+			assertEquals(i, loaded.get(i).getValue(0, 1));
+	}
+
+	@Test
+	void loadAllThrowsForMissingFiles() {
+		List<String> filepaths = List.of(directory.resolve("missing.csv").toString());
+
+		IOException error = assertThrows(IOException.class, () -> new CSVBatchLoader(0, new CSVOptions()).loadAll(filepaths));
+		assertTrue(error instanceof NoSuchFileException, error.toString());
+	}
+}
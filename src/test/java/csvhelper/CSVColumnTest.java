@@ -0,0 +1,89 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVColumnTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void handlesFollowTheirColumnsThroughSwaps() throws IOException {
+		CSVData data = load("time,a,b,c\n100,1,2,3\n110,4,5,6\n");
+		CSVColumn a = data.getColumnHandle("a");
+		CSVColumn c = data.getColumnHandle("c");
+
+		data.swapColumns(1, 3);
+		data.swapColumns(0, 1);
+
+		assertEquals(3, a.getIndex());
+		assertEquals(0, c.getIndex());
+		assertArrayEquals(new double[] {1, 4}, data.getColumn(a));
+		assertArrayEquals(new double[] {3, 6}, data.getColumn("c"));
+		assertEquals(5, data.getValue(1, data.getColumnHandle("b")));
+		for (String name : new String[] {"time", "a", "b", "c"})
+			assertEquals(name, data.getColumnTitles()[data.getColumnIndex(name)]);
+		assertSame(a, data.getColumnHandle("a"));
+	}
+
+	@Test
+	void correctTimeRenamesTheTimeColumn() throws IOException {
+		CSVData data = load("time,a\n100,1\n110,2\n");
+		CSVColumn time = data.getColumnHandle("time");
+
+		CSVData.correctTime(data);
+
+		assertEquals(-1, data.getColumnIndex("time"));
+		assertNull(data.getColumnHandle("time"));
+		assertEquals(0, data.getColumnIndex("Elapsed Time"));
+		assertSame(time, data.getColumnHandle("Elapsed Time"));
+		assertEquals("Elapsed Time", time.getName());
+		assertArrayEquals(new double[] {0, 10}, data.getColumn(time));
+	}
+
+	@Test
+	void renamingOntoAnExistingNameKeepsTheFirstColumn() throws IOException {
+		CSVData data = load("a,time,b\n1,100,2\n");
+		data.getColumnHandle("a");
+
+		CSVData.correctTime(data);
+		data.swapColumns(0, 1);
+		CSVData.correctTime(data);
+
+		// both columns are now called Elapsed Time, and the name finds the first one like a scan would
+		assertEquals(0, data.getColumnIndex("Elapsed Time"));
+		assertEquals(-1, data.getColumnIndex("a"));
+		assertEquals(2, data.getColumnIndex("b"));
+
+		data.swapColumns(0, 2);
+		assertEquals(1, data.getColumnIndex("Elapsed Time"));
+		assertEquals(0, data.getColumnIndex("b"));
+	}
+
+	@Test
+	void titlesChangedDirectlyAreFound() throws IOException {
+		CSVData data = load("time,a,b\n100,1,2\n");
+		assertEquals(1, data.getColumnIndex("a"));
+
+		data.getColumnTitles()[1] = "renamed";
+
+		assertEquals(1, data.getColumnIndex("renamed"));
+		assertEquals(-1, data.getColumnIndex("a"));
+		assertEquals(-1, data.getColumnIndex("missing"));
+	}
+
+	private CSVData load(String text) throws IOException {
+		Path file = directory.resolve("columns.csv");
+		Files.writeString(file, text);
+		return new CSVData(file.toString(), 0, new CSVOptions());
+	}
+}
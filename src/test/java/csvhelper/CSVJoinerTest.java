@@ -0,0 +1,116 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVJoinerTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void clashingRightNamesGetASuffix() {
+		String[] names = CSVJoiner.joinNames(new String[] {"time", "x", "x_right"}, 
+				new String[] {"time", "x", "y", "y"}, 0);
+
+		assertArrayEquals(new String[] {"time", "x", "x_right", "x_right_right", "y", "y_right"}, names);
+	}
+
+	@Test
+	void joinedColumnsCanBeFoundByName() throws IOException {
+		CSVData left = load("left.csv", "time,x\n1,10\n2,20\n");
+		CSVData right = load("right.csv", "time,x\n1,100\n2,200\n");
+
+		CSVData joined = left.join(right);
+		assertArrayEquals(new double[] {10, 20}, joined.getColumn("x"));
+		assertArrayEquals(new double[] {100, 200}, joined.getColumn("x" + CSVJoiner.RIGHT_SUFFIX));
+		assertEquals(3, joined.getColumnTitles().length);
+	}
+
+	@Test
+	void joinPairsEveryRowWithEqualKeys() {
+		Random random = new Random(5);
+		for (int n = 0; n < 50; n++) {
+			CSVStorage left = sortedTable(random, random.nextInt(40), 20);
+			CSVStorage right = sortedTable(random, random.nextInt(40), 20);
+
+			List<double[]> expected = new ArrayList<>();
+			for (int i = 0; i < left.getNumRows(); i++)
+				for (int r = 0; r < right.getNumRows(); r++)
+					if (left.get(i, 0) == right.get(r, 0)) 
+						expected.add(new double[] {left.get(i, 0), left.get(i, 1), right.get(r, 1)});
+
+			CSVStorage joined = CSVJoiner.join(left, 0, right, 0);
+			assertEquals(expected.size(), joined.getNumRows());
+			for (int i = 0; i < expected.size(); i++)
+				assertArrayEquals(expected.get(i), joined.getRow(i));
+		}
+	}
+
+	@Test
+	void joinNearestMatchesTheClosestEarliestRowWithinTolerance() {
+		Random random = new Random(6);
+		for (int n = 0; n < 50; n++) {
+			CSVStorage left = sortedTable(random, random.nextInt(40), 60);
+			CSVStorage right = sortedTable(random, random.nextInt(40), 60);
+			double tolerance = random.nextInt(4) * 0.5;
+
+			CSVStorage joined = CSVJoiner.joinNearest(left, 0, right, 0, tolerance);
+			assertEquals(left.getNumRows(), joined.getNumRows());
+
+			for (int i = 0; i < left.getNumRows(); i++) {
+				int nearest = -1;
+				for (int r = 0; r < right.getNumRows(); r++) {
+					double distance = Math.abs(right.get(r, 0) - left.get(i, 0));
+					if (distance <= tolerance && (nearest < 0 || distance < Math.abs(right.get(nearest, 0) - left.get(i, 0))))
+						nearest = r;
+				}
+
+				double expected = nearest < 0 ? Double.NaN : right.get(nearest, 1);
+				assertEquals(left.get(i, 1), joined.get(i, 1));
+				assertEquals(expected, joined.get(i, 2), "row " + i + " with tolerance " + tolerance);
+			}
+		}
+	}
+
+	@Test
+	void unsortedKeysAreRejected() {
+		CSVStorage sorted = sortedTable(new Random(1), 5, 10);
+		CSVStorage unsorted = CSVStorage.create(CSVStorage.Layout.COLUMNS, 2);
+		unsorted.addRow(new double[] {2, 0});
+		unsorted.addRow(new double[] {1, 0});
+
+		assertThrows(IllegalStateException.class, () -> CSVJoiner.join(sorted, 0, unsorted, 0));
+		assertThrows(IllegalStateException.class, () -> CSVJoiner.joinNearest(unsorted, 0, sorted, 0, 1));
+	}
+
+	private static CSVStorage sortedTable(Random random, int numRows, int numKeys) {
+		double[] keys = new double[numRows];
+		for (int i = 0; i < numRows; i++)
+			keys[i] = random.nextInt(numKeys) * 0.5;
+		Arrays.sort(keys);
+
+		// the values number the rows, so the test can tell which row was matched
+		CSVStorage table = CSVStorage.create(CSVStorage.Layout.ROWS, 2);
+		for (int i = 0; i < numRows; i++)
+			table.addRow(new double[] {keys[i], random.nextInt(1000) * 1000 + i});
+		return table;
+	}
+
+	private CSVData load(String name, String text) throws IOException {
+		Path file = directory.resolve(name);
+		Files.writeString(file, text);
+		return new CSVData(file.toString(), 0);
+	}
+}
@@ -0,0 +1,85 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CSVParserTest {
+	@Test
+	void nonAsciiBytesAreNotWhitespace() {
+		assertThrows(NumberFormatException.class, () -> parse("1.5\u00e9"));
+		assertThrows(NumberFormatException.class, () -> parse("\u00e92"));
+		assertThrows(NumberFormatException.class, () -> parse("3\u00a0"));
+		assertEquals(1.5, parse(" 1.5\t#"));
+
+		assertFalse(isBlank("\u00e9"));
+		assertFalse(isBlank(" \u00a0 "));
+		assertTrue(isBlank(" \t\r"));
+	}
+
+	@Test
+	void parsesTheSameAsDoubleParseDouble() {
+		Random random = new Random(42);
+		String[] special = {"0", "-0", "+0.0", "1e22", "1e23", "9007199254740993", "123456789012345678901234567890",
+				"4.9e-324", "1.7976931348623157e308", "1e400", "-1e-400", ".5", "5.", "NaN", "-Infinity", "0x1p3",
+				"1d", "2.5f", "00012.50", "1E+5", "1e-22", "1e-23", " 7 ", "8#", " -9.25 # "};
+
+		for (String field : special)
+			assertParsesLikeJava(field);
+
+		for (int n = 0; n < 200_000; n++)
+			assertParsesLikeJava(randomField(random));
+	}
+
+	private static void assertParsesLikeJava(String field) {
+		String number = field.strip();
+		if (number.endsWith("#")) number = number.substring(0, number.length() - 1);
+
+		assertEquals(Double.parseDouble(number), parse(field), field);
+	}
+
+	private static String randomField(Random random) {
+		StringBuilder field = new StringBuilder();
+		if (random.nextInt(8) == 0) field.append(' ');
+		if (random.nextInt(4) == 0) field.append(random.nextBoolean() ? '-' : '+');
+
+		int numDigits = 1 + random.nextInt(random.nextInt(4) == 0 ? 25 : 10);
+		int point = random.nextInt(numDigits + 2) - 1;
+		for (int d = 0; d < numDigits; d++) {
+			if (d == point) field.append('.');
+			field.append((char) ('0' + random.nextInt(10)));
+		}
+		if (point == numDigits) field.append('.');
+
+		if (random.nextInt(4) == 0) {
+			field.append(random.nextBoolean() ? 'e' : 'E');
+			if (random.nextBoolean()) field.append(random.nextBoolean() ? '-' : '+');
+			field.append(random.nextInt(random.nextBoolean() ? 30 : 400));
+		}
+		if (random.nextInt(8) == 0) field.append('#');
+		if (random.nextInt(8) == 0) field.append('\t');
+
+		return field.toString();
+	}
+
+	private static double parse(String field) {
+		ByteBuffer buffer = encode(field);
+		return CSVParser.parseDouble(buffer, 0, buffer.limit());
+	}
+
+	private static boolean isBlank(String line) {
+		ByteBuffer buffer = encode(line);
+		return CSVParser.isBlank(buffer, 0, buffer.limit());
+	}
+
+	private static ByteBuffer encode(String text) {
+		return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,84 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVProjectionTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void columnsChosenByNameOrIndexAreStoredInThatOrder() throws IOException {
+		String file = write("generic.csv", "time,a,b,c\n100,1,2,3\n110,4,5,6\n");
+		CSVData all = new CSVData(file, 0, new CSVOptions());
+
+		for (CSVOptions options : new CSVOptions[] {new CSVOptions().setColumns("c", "time"),
+				new CSVOptions().setColumns(3, 0)}) {
+			for (boolean parallel : new boolean[] {false, true}) {
+				CSVData data = new CSVData(file, 0, options.setParallel(parallel));
+
+				assertArrayEquals(new String[] {"c", "time"}, data.getColumnTitles());
+				assertArrayEquals(all.getColumn("c"), data.getColumn(0));
+				assertArrayEquals(all.getColumn("time"), data.getColumn(1));
+			}
+		}
+	}
+
+	@Test
+	void skippedFieldsAreNotParsed() throws IOException {
+		String file = write("generic.csv", "time,note,value\n100,oops,1.5\n110,not a number,2.5\n");
+
+		CSVData data = new CSVData(file, 0, new CSVOptions().setColumns("time", "value"));
+
+		assertEquals(2, data.getNumRows());
+		assertArrayEquals(new double[] {1.5, 2.5}, data.getColumn("value"));
+	}
+
+	@Test
+	void powerSenseColumnsCanBeChosen() throws IOException {
+		StringBuilder text = new StringBuilder("PowerSense capture");
+		for (int i = 0; i < 5; i++) {
+			text.append('\n').append(1000 + i * 10);
+			for (int j = 1; j < 13; j++)
+				text.append(',').append(i * 100 + j);
+			text.append('#');
+		}
+		String file = write("powersense.csv", text.toString());
+		CSVData all = new CSVData(file);
+
+		CSVData data = new CSVData(file, new CSVOptions().setColumns("gyro x", "time(ms)"));
+
+		assertArrayEquals(new String[] {"gyro x", "time(ms)"}, data.getColumnTitles());
+		assertArrayEquals(all.getColumn("gyro x"), data.getColumn(0));
+		assertArrayEquals(all.getColumn("time(ms)"), data.getColumn(1));
+		assertArrayEquals(new double[] {4, 104, 204, 304, 404}, data.getColumn(0));
+	}
+
+	@Test
+	void missingOrRepeatedColumnsAreRejected() throws IOException {
+		String file = write("generic.csv", "time,a,b\n100,1,2\n");
+
+		IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+				() -> new CSVData(file, 0, new CSVOptions().setColumns("time", "missing")));
+		assertTrue(missing.getMessage().contains("missing"), missing.getMessage());
+		assertThrows(IllegalArgumentException.class,
+				() -> new CSVData(file, 1, new String[] {"time", "a", "b"}, new CSVOptions().setColumns("c")));
+		assertThrows(IllegalArgumentException.class, () -> new CSVData(file, 0, new CSVOptions().setColumns(0, 5)));
+		assertThrows(IllegalArgumentException.class, () -> new CSVData(file, 0, new CSVOptions().setColumns("a", "a")));
+	}
+
+	private String write(String name, String text) throws IOException {
+		Path file = directory.resolve(name);
+		Files.writeString(file, text);
+		return file.toString();
+	}
+}
@@ -0,0 +1,285 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVReaderTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void streamsLinesLongerThanTheBufferAndAFinalLineWithoutSeparator() throws IOException {
+		StringBuilder text = new StringBuilder("time,value\r\n\n");
+		text.append("1,").append("0".repeat(CSVReader.BUFFER_SIZE * 2)).append("5\n");
+		text.append("2,20\r\n\n3,30");
+		Path file = directory.resolve("long.csv");
+		Files.writeString(file, text);
+
+		CSVData fromFile = new CSVData(file.toString(), 0);
+		CSVData fromStream = CSVData.readCSVData(new ByteArrayInputStream(Files.readAllBytes(file)), 0, new CSVOptions());
+		for (CSVData data : new CSVData[] {fromFile, fromStream}) {
+			assertArrayEquals(new String[] {"time", "value"}, data.getColumnTitles());
+			assertArrayEquals(new double[] {1, 2, 3}, data.getColumn(0));
+			assertArrayEquals(new double[] {5, 20, 30}, data.getColumn(1));
+		}
+	}
+
+	@Test
+	void tailReadStopsAtMalformedLineWithoutDuplicatingRows() throws IOException {
+		Path file = directory.resolve("tail.csv");
+		Files.writeString(file, "time,value\n1,10\n");
+		CSVData data = new CSVData(file.toString(), 0, new CSVOptions().setTail(true));
+		assertEquals(1, data.getNumRows());
+		assertEquals(10, data.getColumnStats(1).getSum());
+
+		append(file, "2,20\n3,30\nbad,40\n4,40\n");
+		for (int attempt = 0; attempt < 3; attempt++) {
+			NumberFormatException error = assertThrows(NumberFormatException.class, data::readNewRows);
+			assertTrue(error.getMessage().startsWith("Line 5:"), error.getMessage());
+			assertEquals(3, data.getNumRows());
+		}
+
+		assertArrayEquals(new double[] {1, 2, 3}, data.getColumn(0));
+		assertEquals(60, data.getColumnStats(1).getSum());
+	}
+
+	@Test
+	void tailReadSkipsMalformedLinesOnce() throws IOException {
+		Path file = directory.resolve("tail.csv");
+		Files.writeString(file, "time,value\n1,10\n");
+		CSVData data = new CSVData(file.toString(), 0, new CSVOptions().setTail(true).setSkipMalformedLines(true));
+
+		append(file, "2,20\nbad,30\n3,");
+		assertEquals(1, data.readNewRows());
+		append(file, "30\n");
+		assertEquals(1, data.readNewRows());
+		assertEquals(0, data.readNewRows());
+
+		assertArrayEquals(new double[] {1, 2, 3}, data.getColumn(0));
+		assertArrayEquals(new double[] {10, 20, 30}, data.getColumn(1));
+	}
+
+	@Test
+	void tailRefreshesInPiecesMatchOneLoadInEveryLayout() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			if (i % 97 == 5) text.append(i).append(",x\n");
+			text.append(i).append(',').append(i * 0.25).append(i % 2 == 0 ? "\r\n" : "\n");
+		}
+		Path whole = directory.resolve("whole.csv");
+		Files.writeString(whole, "time,value\n" + text);
+
+		Random random = new Random(3);
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			Path file = directory.resolve("tail-" + layout + ".csv");
+			Files.writeString(file, "time,value\n");
+			CSVData data = new CSVData(file.toString(), 0, new CSVOptions().setLayout(layout)
+					.setSkipMalformedLines(true).setTail(true));
+
+			// the pieces cut lines in half, which are only read once they are finished
+			for (int start = 0; start < text.length(); ) {
+				int end = Math.min(text.length(), start + 1 + random.nextInt(300));
+				append(file, text.substring(start, end));
+				data.readNewRows();
+				start = end;
+			}
+
+			CSVData expected = new CSVData(whole.toString(), 0, new CSVOptions().setLayout(layout)
+					.setSkipMalformedLines(true));
+			assertEquals(expected.getNumRows(), data.getNumRows(), layout.name());
+			assertArrayEquals(expected.getColumn(0), data.getColumn(0), layout.name());
+			assertArrayEquals(expected.getColumn(1), data.getColumn(1), layout.name());
+		}
+	}
+
+	@Test
+	void parallelElapsedTimeStartsAtFirstParseableRowInLaterChunk() throws IOException {
+		Path file = directory.resolve("late.csv");
+		StringBuilder text = new StringBuilder("time,value\n");
+		String malformed = "bad".repeat(300) + ",0\n";
+		while (text.length() <= CSVReader.CHUNK_SIZE * 2)
+			text.append(malformed);
+		for (int i = 0; i < 1000; i++)
+			text.append(500 + i).append(',').append(i).append('\n');
+		Files.writeString(file, text);
+
+		CSVTransform elapsed = new CSVTransform().elapsedTime("time");
+		CSVData parallel = new CSVData(file.toString(), 0, new CSVOptions().setParallel(true)
+				.setSkipMalformedLines(true).setTransform(elapsed));
+		CSVData sequential = new CSVData(file.toString(), 0, new CSVOptions()
+				.setSkipMalformedLines(true).setTransform(elapsed));
+
+		assertEquals(1000, parallel.getNumRows());
+		assertEquals(0, parallel.getValue(0, 0));
+		assertArrayEquals(sequential.getColumn(0), parallel.getColumn(0));
+	}
+
+	@Test
+	void parallelElapsedTimeFailsWithoutParseableRow() throws IOException {
+		Path file = directory.resolve("bad.csv");
+		Files.writeString(file, "time,value\nbad,0\nworse,1\n");
+
+		List<Throwable> errors = new ArrayList<>();
+		CSVListener listener = new CSVListener() {
+			@Override
+			public void failed(String filepath, Exception error) {
+				errors.add(error);
+			}
+		};
+		new CSVData(file.toString(), 0, new CSVOptions().setParallel(true).setSkipMalformedLines(true)
+				.setTransform(new CSVTransform().elapsedTime("time")).setListener(listener));
+
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0).getMessage().contains("elapsed time"), errors.get(0).getMessage());
+	}
+
+	@Test
+	void compressedDataIsInflatedOnce() throws IOException {
+		byte[] csv = "time,value\n1,10\n2,20\n".getBytes(StandardCharsets.US_ASCII);
+		byte[] once = gzip(csv), twice = gzip(once);
+
+		Path file = directory.resolve("once.csv.gz");
+		Files.write(file, once);
+		assertArrayEquals(new double[] {10, 20}, new CSVData(file.toString(), 0).getColumn(1));
+		assertArrayEquals(new double[] {10, 20}, 
+				CSVData.readCSVData(new ByteArrayInputStream(once), 0, new CSVOptions()).getColumn(1));
+
+		// what is left after one inflate is the inner gzip data, not the text
+		Path nested = directory.resolve("twice.csv.gz");
+		Files.write(nested, twice);
+		for (boolean scan : new boolean[] {false, true}) {
+			CSVReader reader = new CSVReader(0, null, null, new CSVOptions());
+			try {
+				if (scan) reader.scan(nested.toString(), (rowIndex, row) -> {});
+				else reader.readFile(nested.toString());
+			} catch (NumberFormatException e) {
+				// the inner gzip data is not numbers
+			}
+			assertFalse(Arrays.equals(new String[] {"time", "value"}, reader.getColumnNames()));
+		}
+	}
+
+	@Test
+	void parallelReadsMatchTheStreamInEveryLayout() throws IOException {
+		Path file = writeLargeFile();
+
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values())
+			assertSameAsStream(file, layout, true, false);
+	}
+
+	@Test
+	void mappedReadsMatchTheStreamInEveryLayout() throws IOException {
+		Path file = writeLargeFile();
+
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			assertSameAsStream(file, layout, false, true);
+			assertSameAsStream(file, layout, true, true);
+		}
+	}
+
+	@Test
+	void parallelErrorsNameTheSameLineAsTheStream() throws IOException {
+		Path file = directory.resolve("malformed.csv");
+		StringBuilder text = new StringBuilder("time,value\n");
+		int numLines = 1;
+		while (text.length() < CSVReader.CHUNK_SIZE * 2 + 12345) {
+			text.append(numLines % 100 == 0 ? "\n" : numLines + ",1.5\n");
+			numLines++;
+		}
+		text.append("bad,2\n3,3\n");
+		Files.writeString(file, text);
+
+		String expected = assertThrows(NumberFormatException.class, 
+				() -> new CSVReader(0, null, null, new CSVOptions()).readFile(file.toString())).getMessage();
+		assertTrue(expected.startsWith("Line " + (numLines + 1) + ":"), expected);
+		for (boolean mapped : new boolean[] {false, true}) {
+			CSVOptions options = new CSVOptions().setParallel(true).setMemoryMapped(mapped);
+			assertEquals(expected, assertThrows(NumberFormatException.class, 
+					() -> new CSVReader(0, null, null, options).readFile(file.toString())).getMessage());
+		}
+	}
+
+	@Test
+	void tailReadAfterParallelLoadCountsEveryLine() throws IOException {
+		Path file = directory.resolve("tail.csv");
+		StringBuilder text = new StringBuilder("time,value\n");
+		int numLines = 1;
+		while (text.length() < CSVReader.CHUNK_SIZE * 2 + 12345) {
+			text.append(numLines % 100 == 0 ? "\n" : numLines + ",1.5\n");
+			numLines++;
+		}
+		Files.writeString(file, text);
+		CSVData data = new CSVData(file.toString(), 0, new CSVOptions().setParallel(true).setTail(true));
+
+		append(file, "1,2\nbad,2\n");
+		NumberFormatException error = assertThrows(NumberFormatException.class, data::readNewRows);
+		assertTrue(error.getMessage().startsWith("Line " + (numLines + 2) + ":"), error.getMessage());
+	}
+
+	// several chunks with blank, CRLF and malformed lines and a last line without a separator
+	private Path writeLargeFile() throws IOException {
+		Path file = directory.resolve("large.csv");
+		Random random = new Random(7);
+		StringBuilder text = new StringBuilder("time,a,b,c\n");
+		for (int i = 0; text.length() < CSVReader.CHUNK_SIZE * 3 + 12345; i++) {
+			if (i % 1000 == 17) text.append("\n");
+			if (i % 5000 == 99) text.append("1,oops,2,3\n");
+			text.append(i).append(',').append(random.nextInt(2000) - 1000).append('.').append(random.nextInt(1000))
+					.append(',').append(random.nextDouble() * 1e6).append(',').append(random.nextGaussian());
+			text.append(i % 3 == 0 ? "\r\n" : "\n");
+		}
+		text.append("999999999,1,2,3");
+		Files.writeString(file, text);
+		return file;
+	}
+
+	private static void assertSameAsStream(Path file, CSVStorage.Layout layout, boolean parallel, boolean mapped) {
+		CSVData expected = load(file, layout, false, false);
+		CSVData data = load(file, layout, parallel, mapped);
+		String name = layout + (parallel ? " parallel" : "") + (mapped ? " mapped" : "");
+
+		assertEquals(expected.getNumRows(), data.getNumRows(), name);
+		for (int j = 0; j < 4; j++)
+			assertArrayEquals(expected.getColumn(j), data.getColumn(j), name);
+		expected.close();
+		data.close();
+	}
+
+	private static CSVData load(Path file, CSVStorage.Layout layout, boolean parallel, boolean mapped) {
+		CSVTransform transform = new CSVTransform().elapsedTime("time").filter("a", value -> value > -900);
+
+		return new CSVData(file.toString(), 0, new CSVOptions().setLayout(layout).setParallel(parallel)
+				.setMemoryMapped(mapped).setSkipMalformedLines(true).setTransform(transform));
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.toByteArray();
+	}
+
+	private static void append(Path file, String text) throws IOException {
+		Files.writeString(file, text, StandardOpenOption.APPEND);
+	}
+}
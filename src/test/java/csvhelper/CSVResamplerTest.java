@@ -0,0 +1,29 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CSVResamplerTest {
+	@Test
+	void downsampleKeepsSpikesUpToTheLastBucket() {
+		for (int numRows = 10; numRows < 60; numRows++) {
+			for (int numPoints = 3; numPoints < numRows; numPoints++) {
+				CSVStorage storage = CSVStorage.create(CSVStorage.Layout.COLUMNS, 2);
+				for (int i = 0; i < numRows; i++)
+					storage.addRow(new double[] {i, i == numRows - 2 ? 1000 : 0});
+
+				CSVStorage picked = CSVResampler.downsample(storage, 0, 1, numPoints);
+				String name = numRows + " rows to " + numPoints;
+				assertEquals(numPoints, picked.getNumRows(), name);
+				assertEquals(0, picked.get(0, 0), name);
+				assertEquals(numRows - 1, picked.get(numPoints - 1, 0), name);
+				assertEquals(numRows - 2, picked.get(numPoints - 2, 0), name);
+
+				for (int k = 1; k < numPoints; k++)
+					assertTrue(picked.get(k, 0) > picked.get(k - 1, 0), name);
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVScanTest {
+	private static final String ROWS = "100,1.5,-2\n\n110,2.5,-3\r\n120,3.5,-4";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void scanWithHeaderVisitsTheRowsALoadStores() throws IOException {
+		Path file = directory.resolve("header.csv");
+		Files.writeString(file, "capture 7\ntime,a,b\n" + ROWS);
+		CSVData data = new CSVData(file.toString(), 1, new CSVOptions());
+
+		for (boolean mapped : new boolean[] {false, true}) {
+			Collector collector = new Collector();
+			int numRows = CSVData.scan(file.toString(), 1, new CSVOptions().setMemoryMapped(mapped), collector);
+
+			assertEquals(3, numRows);
+			assertArrayEquals(new String[] {"time", "a", "b"}, collector.columnNames);
+			assertRowsMatch(data, collector);
+		}
+	}
+
+	@Test
+	void scanWithoutHeaderUsesTheGivenNames() throws IOException {
+		Path file = directory.resolve("plain.csv");
+		Files.writeString(file, "capture 7\n" + ROWS);
+		String[] names = {"time", "a", "b"};
+		CSVData data = new CSVData(file.toString(), 1, names, new CSVOptions());
+
+		Collector collector = new Collector();
+		assertEquals(3, CSVData.scan(file.toString(), 1, names, collector));
+
+		assertArrayEquals(names, collector.columnNames);
+		assertRowsMatch(data, collector);
+	}
+
+	@Test
+	void scanReadsCompressedFilesAndProjections() throws IOException {
+		Path file = directory.resolve("header.csv.gz");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(("time,a,b\n" + ROWS).getBytes(StandardCharsets.UTF_8));
+		}
+		Files.write(file, bytes.toByteArray());
+
+		Collector collector = new Collector();
+		assertEquals(3, CSVData.scan(file.toString(), 0, new CSVOptions().setColumns("b", "time"), collector));
+
+		assertArrayEquals(new String[] {"b", "time"}, collector.columnNames);
+		assertArrayEquals(new double[] {-3, 110}, collector.rows.get(1));
+	}
+
+	@Test
+	void theRowArrayIsReused() throws IOException {
+		Path file = directory.resolve("header.csv");
+		Files.writeString(file, "time,a,b\n" + ROWS);
+		double[][] first = new double[1][];
+
+		CSVData.scan(file.toString(), 0, (rowIndex, row) -> {
+			if (rowIndex == 0) first[0] = row;
+			assertSame(first[0], row);
+		});
+	}
+
+	private static void assertRowsMatch(CSVData data, Collector collector) {
+		assertEquals(data.getNumRows(), collector.rows.size());
+		for (int i = 0; i < data.getNumRows(); i++) {
+			assertEquals(i, collector.rowIndexes.get(i));
+			assertArrayEquals(data.getRow(i), collector.rows.get(i));
+		}
+	}
+
+	private static class Collector implements RowVisitor {
+		String[] columnNames;
+		List<Integer> rowIndexes = new ArrayList<>();
+		List<double[]> rows = new ArrayList<>();
+
+		@Override
+		public void start(String[] columnNames) {
+			this.columnNames = columnNames;
+		}
+
+		@Override
+		public void visitRow(int rowIndex, double[] row) {
+			rowIndexes.add(rowIndex);
+			rows.add(row.clone());
+		}
+	}
+}
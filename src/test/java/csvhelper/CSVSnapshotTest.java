@@ -0,0 +1,109 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVSnapshotTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTripKeepsNamesAndEveryValueInEveryLayout() throws IOException {
+		String[] names = {"time", "wert \u00b5", "", "a,b"};
+		double[][] rows = {{0, -0.0, Double.NaN, 1}, {1, Double.MAX_VALUE, Double.MIN_VALUE, -1}, 
+				{2, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.1}};
+
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			for (int numRows = 0; numRows <= rows.length; numRows++) {
+				CSVStorage storage = CSVStorage.create(layout, names.length);
+				for (int i = 0; i < numRows; i++)
+					storage.addRow(rows[i]);
+
+				Path file = directory.resolve(layout + "-" + numRows + ".snapshot");
+				CSVSnapshot.write(names, storage, file.toString());
+				CSVSnapshot snapshot = CSVSnapshot.load(file.toString());
+
+				assertArrayEquals(names, snapshot.getColumnNames());
+				assertEquals(numRows, snapshot.getStorage().getNumRows());
+				for (int i = 0; i < numRows; i++)
+					assertArrayEquals(storage.getRow(i), snapshot.getStorage().getRow(i), layout + " row " + i);
+				snapshot.getStorage().close();
+				storage.close();
+			}
+		}
+	}
+
+	@Test
+	void valuesAreReadOnlyWhateverTheFilePermissions() throws IOException {
+		Path file = writeSnapshot();
+
+		CSVData writable = CSVData.loadSnapshot(file.toString());
+		assertThrows(ReadOnlyBufferException.class, () -> writable.setValue(0, 0, 5));
+
+		file.toFile().setWritable(false);
+		CSVData readOnly = CSVData.loadSnapshot(file.toString());
+		assertThrows(ReadOnlyBufferException.class, () -> readOnly.setValue(0, 0, 5));
+		assertEquals(1, readOnly.getValue(0, 0));
+	}
+
+	@Test
+	void closingDoesNotUnmapColumnsUnderAView() throws IOException {
+		CSVData data = CSVData.loadSnapshot(writeSnapshot().toString());
+		DoubleBuffer view = data.getColumnView(1);
+		data.close();
+
+		assertEquals(20, view.get(1));
+	}
+
+	@Test
+	void corruptHeadersAreRejectedBeforeMapping() throws IOException {
+		byte[] bytes = Files.readAllBytes(writeSnapshot());
+
+		assertCorrupt(Arrays.copyOf(bytes, 10));
+		assertCorrupt(Arrays.copyOf(bytes, bytes.length - 1));
+		assertCorrupt(withInt(bytes, 0, 0x12345678));
+		assertCorrupt(withInt(bytes, 4, CSVSnapshot.VERSION + 1));
+		assertCorrupt(withInt(bytes, 8, -1));
+		assertCorrupt(withInt(bytes, 8, Integer.MAX_VALUE));
+		assertCorrupt(withInt(bytes, 12, -1));
+		assertCorrupt(withInt(bytes, 12, Integer.MAX_VALUE));
+		assertCorrupt(withInt(bytes, 16, -5));
+		assertCorrupt(withInt(bytes, 16, Integer.MAX_VALUE));
+	}
+
+	private Path writeSnapshot() throws IOException {
+		Path csv = directory.resolve("data.csv");
+		Files.writeString(csv, "time,value\n1,10\n2,20\n3,30\n");
+		Path file = directory.resolve("data.snapshot");
+		new CSVData(csv.toString(), 0).saveSnapshot(file.toString());
+
+		assertArrayEquals(new double[] {10, 20, 30}, CSVData.loadSnapshot(file.toString()).getColumn(1));
+		return file;
+	}
+
+	private void assertCorrupt(byte[] bytes) throws IOException {
+		Path file = Files.createTempFile(directory, "corrupt", ".snapshot");
+		Files.write(file, bytes);
+
+		assertThrows(IOException.class, () -> CSVData.loadSnapshot(file.toString()));
+	}
+
+	private static byte[] withInt(byte[] bytes, int position, int value) {
+		byte[] changed = bytes.clone();
+		ByteBuffer.wrap(changed).order(ByteOrder.LITTLE_ENDIAN).putInt(position, value);
+		return changed;
+	}
+}
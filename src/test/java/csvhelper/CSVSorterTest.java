@@ -0,0 +1,59 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class CSVSorterTest {
+	@Test
+	void sortOrderIsStableAndMatchesAComparatorSort() {
+		Random random = new Random(11);
+		double[] specials = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -1e300, 1e-300};
+
+		// the larger size is sorted in chunks on several threads
+		for (int numRows : new int[] {0, 1, 1000, 200_000}) {
+			CSVStorage storage = CSVStorage.create(CSVStorage.Layout.COLUMNS, 3);
+			for (int i = 0; i < numRows; i++) {
+				double special = specials[random.nextInt(specials.length)];
+				storage.addRow(new double[] {random.nextInt(5), random.nextInt(20) == 0 ? special : random.nextInt(50) - 25, i});
+			}
+
+			for (boolean[] ascending : new boolean[][] {{true, true}, {true, false}, {false, true}, {false, false}}) {
+				int[] columns = {0, 1};
+				int[] order = CSVSorter.sortOrder(storage, columns, ascending);
+
+				Comparator<Integer> comparator = (a, b) -> 0;
+				for (int k = 0; k < columns.length; k++) {
+					int column = columns[k];
+					boolean up = ascending[k];
+					comparator = comparator.thenComparing((a, b) -> up ? Double.compare(storage.get(a, column), storage.get(b, column))
+							: Double.compare(storage.get(b, column), storage.get(a, column)));
+				}
+				// a stable sort of the row indexes is the reference
+				int[] expected = IntStream.range(0, numRows).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+
+				assertArrayEquals(expected, order, numRows + " rows");
+			}
+		}
+	}
+
+	@Test
+	void sortByMovesWholeRowsInEveryLayout() {
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			CSVStorage storage = CSVStorage.create(layout, 2);
+			double[] keys = {3, 1, 2, 1, 3, 1};
+			for (int i = 0; i < keys.length; i++)
+				storage.addRow(new double[] {i, keys[i]});
+
+			storage.permuteRows(CSVSorter.sortOrder(storage, new int[] {1}, new boolean[] {true}));
+
+			assertArrayEquals(new double[] {1, 3, 5, 2, 0, 4}, storage.getColumn(0), layout.name());
+			assertArrayEquals(new double[] {1, 1, 1, 2, 3, 3}, storage.getColumn(1), layout.name());
+			storage.close();
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVTimeIndexTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void searchesMatchAScanInEveryLayout() throws IOException {
+		Random random = new Random(21);
+		StringBuilder text = new StringBuilder("time,value\n");
+		long time = 1700000000000L;
+		for (int i = 0; i < 500; i++) {
+			// repeated times are allowed
+			time += random.nextInt(3) * 5;
+			text.append(time).append(',').append(i).append('\n');
+		}
+		String file = write(text.toString());
+
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			CSVData data = new CSVData(file, 0, new CSVOptions().setLayout(layout));
+			assertMatchesScan(data, random, layout.name());
+
+			CSVData.correctTime(data);
+			assertEquals(0, data.getValue(0, 0), layout.name());
+			assertMatchesScan(data, random, layout.name() + " corrected");
+			data.close();
+		}
+	}
+
+	@Test
+	void unsortedTimesAreRejectedUntilTheyAreFixed() throws IOException {
+		CSVData data = new CSVData(write("time,value\n100,1\n110,2\n105,3\n130,4\n"), 0, new CSVOptions());
+
+		assertFalse(data.isTimeSorted());
+		IllegalStateException error = assertThrows(IllegalStateException.class, () -> data.rowsBetween(100, 120));
+		assertTrue(error.getMessage().contains("row 2"), error.getMessage());
+		assertThrows(IllegalStateException.class, () -> data.nearestRow(100));
+
+		data.setValue(2, 0, 120);
+		assertEquals(2, data.nearestRow(121));
+		assertArrayEquals(new double[] {110, 120}, data.rowsBetween(105, 130).getColumn(0));
+
+		data.setValue(1, 0, 200);
+		assertThrows(IllegalStateException.class, () -> data.rowsBetween(100, 120));
+	}
+
+	@Test
+	void anotherColumnCanHoldTheTime() throws IOException {
+		CSVData data = new CSVData(write("value,time\n5,100\n4,110\n3,120\n"), 0, new CSVOptions());
+		assertFalse(data.isTimeSorted());
+
+		data.setTimeColumn("time");
+
+		assertEquals(1, data.nearestRow(112));
+		assertArrayEquals(new double[] {4, 3}, data.rowsBetween(110, 200).getColumn(0));
+	}
+
+	@Test
+	void rowsAddedByATailReadAreChecked() throws IOException {
+		String file = write("time,value\n100,1\n110,2\n");
+		CSVData data = new CSVData(file, 0, new CSVOptions().setTail(true));
+		assertEquals(1, data.nearestRow(108));
+
+		Files.writeString(Path.of(file), "120,3\n", StandardOpenOption.APPEND);
+		data.readNewRows();
+		assertEquals(2, data.nearestRow(1000));
+
+		Files.writeString(Path.of(file), "90,4\n", StandardOpenOption.APPEND);
+		data.readNewRows();
+		assertThrows(IllegalStateException.class, () -> data.nearestRow(100));
+	}
+
+	private static void assertMatchesScan(CSVData data, Random random, String name) {
+		double[] times = data.getColumn(0);
+		double first = times[0], last = times[times.length - 1];
+
+		for (int n = 0; n < 200; n++) {
+			double start = first - 20 + random.nextInt((int) (last - first) + 40);
+			double end = start + random.nextInt(60) - 10;
+			if (random.nextBoolean()) start += 0.5;
+
+			int expectedStart = 0;
+			while (expectedStart < times.length && times[expectedStart] < start) expectedStart++;
+			int expectedEnd = expectedStart;
+			while (expectedEnd < times.length && times[expectedEnd] < end) expectedEnd++;
+
+			CSVView view = data.rowsBetween(start, end);
+			assertEquals(expectedEnd - expectedStart, view.getNumRows(), name + " " + start + " to " + end);
+			if (view.getNumRows() > 0) assertEquals(expectedStart, view.getSourceRow(0), name);
+
+			// the earliest of the closest rows
+			int nearest = 0;
+			for (int i = 1; i < times.length; i++)
+				if (Math.abs(times[i] - start) < Math.abs(times[nearest] - start)) nearest = i;
+			assertEquals(nearest, data.nearestRow(start), name + " near " + start);
+		}
+	}
+
+	private String write(String text) throws IOException {
+		Path file = directory.resolve("times.csv");
+		Files.writeString(file, text);
+		return file.toString();
+	}
+}
@@ -0,0 +1,81 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVViewTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void viewsReadThroughAfterSetValueInEveryLayout() throws IOException {
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			CSVData data = load(layout, false);
+			CSVView range = data.viewRows(1, 4);
+			CSVView picked = data.viewRows(new int[] {4, 0, 2});
+			CSVView columns = data.viewColumns(new String[] {"b", "time"});
+			CSVView nested = range.viewColumns(new int[] {2}).viewRows(new int[] {1});
+			double[][] copy = range.toArray();
+
+			data.setValue(2, 2, 0.5);
+			data.setRow(4, new double[] {140, 7.5, 8.5});
+			data.setColumn("time", new double[] {1, 2, 3, 4, 5});
+
+			assertEquals(0.5, range.getValue(1, 2), layout.name());
+			assertEquals(0.5, nested.getValue(0, 0), layout.name());
+			assertArrayEquals(new double[] {5, 7.5, 8.5}, picked.getRow(0), layout.name());
+			assertArrayEquals(new double[] {3, 2.5, 0.5}, picked.getRow(2), layout.name());
+			assertArrayEquals(new double[] {1, 2, 3, 4, 5}, columns.getColumn(1), layout.name());
+			assertArrayEquals(new double[] {-1, -2, 0.5, -4, 8.5}, columns.getColumn(0), layout.name());
+
+			// the copy does not change
+			assertArrayEquals(new double[] {120, 2.5, -3}, copy[1], layout.name());
+			data.close();
+		}
+	}
+
+	@Test
+	void viewsStayValidWhileTheTailGrows() throws IOException {
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			CSVData data = load(layout, true);
+			CSVView range = data.viewRows(3, 5);
+
+			StringBuilder text = new StringBuilder();
+			for (int i = 0; i < 3000; i++)
+				text.append(200 + i).append(",1,2\n");
+			Files.writeString(directory.resolve("values.csv"), text, StandardOpenOption.APPEND);
+			assertEquals(3000, data.readNewRows(), layout.name());
+			data.setValue(4, 1, 9.5);
+
+			assertEquals(2, range.getNumRows(), layout.name());
+			assertArrayEquals(new double[] {130, 140}, range.getColumn(0), layout.name());
+			assertEquals(9.5, range.getValue(1, 1), layout.name());
+			data.close();
+		}
+	}
+
+	@Test
+	void rowsOutsideTheViewAreRejected() throws IOException {
+		CSVData data = load(CSVStorage.Layout.COLUMNS, false);
+		CSVView range = data.viewRows(1, 4);
+
+		assertThrows(IndexOutOfBoundsException.class, () -> range.getValue(3, 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> range.viewRows(2, 5));
+		assertEquals(3, range.getSourceRow(2));
+	}
+
+	private CSVData load(CSVStorage.Layout layout, boolean tail) throws IOException {
+		Path file = directory.resolve("values.csv");
+		Files.writeString(file, "time,a,b\n100,-0.5,-1\n110,1.5,-2\n120,2.5,-3\n130,3.5,-4\n140,4.5,-5\n");
+		return new CSVData(file.toString(), 0, new CSVOptions().setLayout(layout).setTail(tail));
+	}
+}
@@ -0,0 +1,109 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CSVWriterTest {
+	private static final double[] SPECIAL_VALUES = {0, -0.0, 1, -1, 0.1 + 0.2, 1e-3, 9.999e-4, 1e7, 1e7 - 0.5,
+			123456789012345.0, 9007199254740993.0, 1e21, -1.5e-300, Double.MIN_VALUE, Double.MAX_VALUE,
+			Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1700000000123.0, 0.5, 100};
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void textMatchesTheOldFormattingInEveryLayout() throws IOException {
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			if (layout == CSVStorage.Layout.FLOATS) continue;
+			CSVData data = load(layout, 3000);
+			Random random = new Random(8);
+			for (int i = 0; i < data.getNumRows(); i++)
+				for (int j = 0; j < 3; j++)
+					data.setValue(i, j, i < SPECIAL_VALUES.length ? SPECIAL_VALUES[(i + j) % SPECIAL_VALUES.length]
+							: randomValue(random));
+
+			assertEquals(oldText(data, 0, data.getNumRows()), data.dataToString(), layout.name());
+			assertEquals(oldText(data, 2, 7), data.displayNRows(2, 7), layout.name());
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			data.writeTo(out);
+			assertEquals(data.dataToString(), out.toString(StandardCharsets.UTF_8), layout.name());
+			data.close();
+		}
+	}
+
+	@Test
+	void floatColumnsAreWrittenAsTheirShortestFloatText() throws IOException {
+		CSVData data = load(CSVStorage.Layout.FLOATS, 3000);
+		Random random = new Random(8);
+		for (int i = 0; i < data.getNumRows(); i++)
+			for (int j = 1; j < 3; j++)
+				data.setValue(i, j, i < SPECIAL_VALUES.length ? SPECIAL_VALUES[(i + j) % SPECIAL_VALUES.length]
+						: randomValue(random));
+
+		String[] lines = data.dataToString().split("\n");
+		assertEquals(data.getNumRows() + 1, lines.length);
+		for (int i = 0; i < data.getNumRows(); i++) {
+			String expected = data.getValue(i, 0) + ", " + (float) data.getValue(i, 1) + ", " + (float) data.getValue(i, 2);
+			assertEquals(expected, lines[i + 1]);
+		}
+	}
+
+	@Test
+	void noRowsLeavesOnlyTheTitles() throws IOException {
+		CSVData data = load(CSVStorage.Layout.COLUMNS, 0);
+
+		assertEquals("time, a, b", data.dataToString());
+		assertEquals(oldText(data, 0, 0), data.dataToString());
+	}
+
+	private CSVData load(CSVStorage.Layout layout, int numRows) throws IOException {
+		StringBuilder text = new StringBuilder("time,a,b\n");
+		for (int i = 0; i < numRows; i++)
+			text.append(i).append(",0,0\n");
+		Path file = directory.resolve("values.csv");
+		Files.writeString(file, text);
+		return new CSVData(file.toString(), 0, new CSVOptions().setLayout(layout));
+	}
+
+	private static double randomValue(Random random) {
+		switch (random.nextInt(4)) {
+		case 0:
+			return random.nextInt(100000);
+		case 1:
+			return Math.round(random.nextGaussian() * 1e6) / 1000.0;
+		case 2:
+			return Double.longBitsToDouble(random.nextLong());
+		default:
+			return random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+		}
+	}
+
+	// the text dataToString and displayNRows built before they streamed through CSVWriter
+	private static String oldText(CSVData data, int startIndex, int endIndex) {
+		StringBuilder output = new StringBuilder();
+
+		for (String columnName : data.getColumnTitles())
+			output.append(columnName + ", ");
+
+		for (int i = startIndex; i < endIndex; i++) {
+			int length = output.length();
+			output.delete(length-2, length);
+			output.append("\n");
+			for (int j = 0; j < data.getColumnTitles().length; j++)
+				output.append(data.getValue(i, j) + ", ");
+		}
+		output.delete(output.length()-2, output.length());
+
+		return output.toString();
+	}
+}
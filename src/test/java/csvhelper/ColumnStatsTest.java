@@ -0,0 +1,67 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnStatsTest {
+	@Test
+	void everyLayoutGivesTheSameStatistics() {
+		double[][] rows = new double[11][];
+		for (int i = 0; i < rows.length; i++)
+			rows[i] = new double[] {1000 + i * 10, i * 0.5 - 2, Double.NaN};
+
+		for (CSVStorage.Layout layout : CSVStorage.Layout.values()) {
+			CSVStorage storage = CSVStorage.create(layout, 3);
+			for (double[] row : rows)
+				storage.addRow(row);
+
+			ColumnStats time = storage.getColumnStats(0);
+			assertEquals(11, time.getCount(), layout.name());
+			assertEquals(1050, time.getMean(), 1e-9, layout.name());
+			assertEquals(1000, time.getMin(), layout.name());
+			assertEquals(1100, time.getMax(), layout.name());
+			assertEquals(1000, time.getVariance(), 1e-9, layout.name());
+
+			ColumnStats values = storage.getColumnStats(1);
+			assertEquals(5.5, values.getSum(), 1e-6, layout.name());
+			assertEquals(-2, values.getMin(), layout.name());
+			assertEquals(3, values.getMax(), layout.name());
+
+			ColumnStats missing = storage.getColumnStats(2);
+			assertTrue(Double.isNaN(missing.getMin()) && Double.isNaN(missing.getMax()), layout.name());
+			storage.close();
+		}
+	}
+
+	@Test
+	void floatAndRowLoopsMatchTheBufferLoop() {
+		Random random = new Random(14);
+		for (int count = 0; count < 40; count++) {
+			float[] floats = new float[count + 3];
+			double[] widened = new double[count + 3];
+			double[][] rows = new double[count][];
+			for (int i = 0; i < floats.length; i++) {
+				floats[i] = (float) (random.nextGaussian() * 50);
+				widened[i] = floats[i];
+				if (i < count) rows[i] = new double[] {-1, widened[i]};
+			}
+
+			ColumnStats expected = ColumnStats.of(DoubleBuffer.wrap(widened), count);
+			assertEquals(expected.toString(), ColumnStats.of(floats, count).toString());
+			assertEquals(expected.toString(), ColumnStats.of(rows, 1, count).toString());
+		}
+	}
+
+	@Test
+	void emptyColumnHasNoMean() {
+		ColumnStats stats = ColumnStats.of(DoubleBuffer.wrap(new double[0]), 0);
+
+		assertEquals(0, stats.getCount());
+		assertTrue(Double.isNaN(stats.getMean()));
+	}
+}
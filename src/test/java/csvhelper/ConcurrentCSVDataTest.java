@@ -0,0 +1,140 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConcurrentCSVDataTest {
+	private static final int NUM_COLUMNS = 6;
+	private static final int NUM_ROWS = 200;
+	private static final int NUM_READERS = 3;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readersNeverSeeNamesAndValuesThatDoNotMatch() throws Exception {
+		// column "c<k>" holds k * 1000 + the row index
+		ConcurrentCSVData data = new ConcurrentCSVData(load());
+		Random random = new Random(19);
+
+		List<String> problems = race(() -> {
+			for (int n = 0; n < 20000; n++)
+				data.swapColumns(random.nextInt(NUM_COLUMNS), random.nextInt(NUM_COLUMNS));
+		}, () -> {
+			CSVView snapshot = data.snapshot();
+			String[] names = snapshot.getColumnTitles();
+			for (int j = 0; j < NUM_COLUMNS; j++) {
+				int k = Integer.parseInt(names[j].substring(1));
+				if (snapshot.getValue(NUM_ROWS - 1, j) != k * 1000 + NUM_ROWS - 1)
+					return names[j] + " at " + j + " holds " + snapshot.getValue(NUM_ROWS - 1, j);
+			}
+			return null;
+		});
+
+		assertEquals(List.of(), problems);
+	}
+
+	@Test
+	void readersNeverSeeAHalfWrittenRow() throws Exception {
+		ConcurrentCSVData data = new ConcurrentCSVData(load());
+		Random random = new Random(19);
+		double[] rowValues = new double[NUM_COLUMNS];
+
+		List<String> problems = race(() -> {
+			for (int n = 0; n < 5000; n++) {
+				Arrays.fill(rowValues, -n - 1);
+				data.setRow(random.nextInt(NUM_ROWS), rowValues);
+			}
+		}, () -> {
+			CSVView snapshot = data.snapshot();
+			for (int i = 0; i < NUM_ROWS; i++) {
+				double[] row = snapshot.getRow(i);
+				// a row is either untouched or written whole
+				for (int j = 1; j < NUM_COLUMNS; j++)
+					if (row[0] < 0 ? row[j] != row[0] : row[j] != row[0] + j * 1000)
+						return "row " + i + " mixes " + row[0] + " and " + row[j];
+			}
+			return null;
+		});
+
+		assertEquals(List.of(), problems);
+	}
+
+	@Test
+	void snapshotsDoNotChangeAfterLaterWrites() throws IOException {
+		ConcurrentCSVData data = new ConcurrentCSVData(load());
+		CSVView before = data.snapshot();
+
+		data.setValue(3, 2, -1);
+		data.swapColumns(0, 1);
+		data.correctTime();
+
+		assertEquals("c0", before.getColumnTitles()[0]);
+		assertEquals(2003, before.getValue(3, 2));
+		assertEquals("Elapsed Time", data.getColumnTitles()[0]);
+		assertEquals(-1, data.getValue(3, 2));
+		assertEquals(0, data.getValue(0, 0));
+		assertArrayEquals(new double[] {0, 1, 2}, Arrays.copyOf(data.getColumn("Elapsed Time"), 3));
+	}
+
+	private interface Check {
+		String run();
+	}
+
+	// runs the writer while readers check every snapshot they see, and returns what they found wrong
+	private static List<String> race(Runnable writer, Check check) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_READERS);
+		AtomicBoolean done = new AtomicBoolean();
+		List<Future<String>> readers = new ArrayList<>();
+
+		try {
+			for (int r = 0; r < NUM_READERS; r++) {
+				readers.add(executor.submit(() -> {
+					while (!done.get()) {
+						String problem = check.run();
+						if (problem != null) return problem;
+					}
+					return check.run();
+				}));
+			}
+			writer.run();
+		} finally {
+			done.set(true);
+			executor.shutdown();
+		}
+
+		List<String> problems = new ArrayList<>();
+		for (Future<String> reader : readers)
+			if (reader.get() != null) problems.add(reader.get());
+		return problems;
+	}
+
+	private CSVData load() throws IOException {
+		StringBuilder text = new StringBuilder("c0");
+		for (int j = 1; j < NUM_COLUMNS; j++)
+			text.append(",c").append(j);
+		for (int i = 0; i < NUM_ROWS; i++) {
+			text.append('\n').append(i);
+			for (int j = 1; j < NUM_COLUMNS; j++)
+				text.append(',').append(j * 1000 + i);
+		}
+		Path file = directory.resolve("columns.csv");
+		Files.writeString(file, text);
+		return new CSVData(file.toString(), 0, new CSVOptions());
+	}
+}
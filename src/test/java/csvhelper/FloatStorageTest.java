@@ -0,0 +1,61 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FloatStorageTest {
+	private static final long EPOCH_MILLIS = 1700000000123L;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void projectedTimeColumnKeepsFullPrecision() throws IOException {
+		CSVOptions options = new CSVOptions().setLayout(CSVStorage.Layout.FLOATS).setColumns("gyro x", "time(ms)");
+		CSVData data = new CSVData(writeFile(), 0, options);
+
+		assertEquals(1, data.getTimeColumn());
+		assertTimes(data, 1);
+	}
+
+	@Test
+	void reorderedTimeColumnKeepsFullPrecision() throws IOException {
+		CSVTransform transform = new CSVTransform().reorder("gyro x", "gyro y", "time(ms)");
+		CSVData data = new CSVData(writeFile(), 0, new CSVOptions().setLayout(CSVStorage.Layout.FLOATS).setTransform(transform));
+
+		assertEquals(2, data.getTimeColumn());
+		assertTimes(data, 2);
+		assertEquals(0.25, data.getValue(3, 0));
+	}
+
+	@Test
+	void swappedTimeColumnKeepsFullPrecision() {
+		FloatStorage storage = new FloatStorage(3, 4, 1);
+		storage.addRow(new double[] {0.1, EPOCH_MILLIS, 0.2});
+		storage.swapColumns(1, 2);
+
+		assertEquals(EPOCH_MILLIS, storage.get(0, 2));
+		assertEquals((float) 0.2, storage.get(0, 1));
+	}
+
+	private String writeFile() throws IOException {
+		StringBuilder text = new StringBuilder("time(ms),gyro x,gyro y\n");
+		for (int i = 0; i < 10; i++)
+			text.append(EPOCH_MILLIS + i).append(",0.25,-1.5\n");
+		Path file = directory.resolve("epoch.csv");
+		Files.writeString(file, text);
+		return file.toString();
+	}
+
+	private static void assertTimes(CSVData data, int timeColumn) {
+		assertEquals(10, data.getNumRows());
+		for (int i = 0; i < 10; i++)
+			assertEquals(EPOCH_MILLIS + i, data.getValue(i, timeColumn));
+	}
+}
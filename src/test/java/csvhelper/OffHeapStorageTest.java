@@ -0,0 +1,54 @@
+package csvhelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OffHeapStorageTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void viewsStayReadableAfterTheStorageGrows() throws IOException {
+		StringBuilder text = new StringBuilder("time\n");
+		for (int i = 0; i < 1024; i++)
+			text.append(i).append('\n');
+		Path file = directory.resolve("tail.csv");
+		Files.writeString(file, text);
+
+		CSVData data = new CSVData(file.toString(), 0, new CSVOptions().setLayout(CSVStorage.Layout.OFF_HEAP).setTail(true));
+		DoubleBuffer view = data.getColumnView(0);
+
+		Files.writeString(file, "1024\n".repeat(5000), StandardOpenOption.APPEND);
+		assertEquals(5000, data.readNewRows());
+		// fill the memory the old buffer used, in case it was freed
+		for (int i = 0; i < 100; i++)
+			ByteBuffer.allocateDirect(1 << 13).putLong(0, -1);
+
+		double sum = 0;
+		for (int i = 0; i < view.limit(); i++)
+			sum += view.get(i);
+		assertEquals(523776, sum);
+		data.close();
+	}
+
+	@Test
+	void reservingPastTheBufferLimitFailsClearly() {
+		OffHeapStorage storage = new OffHeapStorage(2, 16);
+		storage.addRow(new double[] {1, 2});
+
+		assertThrows(IllegalStateException.class, () -> storage.reserveRows(OffHeapStorage.MAX_CAPACITY));
+		assertThrows(IllegalStateException.class, () -> storage.reserveRows(Integer.MAX_VALUE));
+		assertEquals(2, storage.get(0, 1));
+		storage.close();
+	}
+}